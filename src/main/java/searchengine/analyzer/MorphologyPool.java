@@ -0,0 +1,58 @@
+package searchengine.analyzer;
+
+import org.apache.lucene.morphology.LuceneMorphology;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MorphologyPool {
+    private final int size;
+    private final MorphologyFactory factory;
+    private final BlockingQueue<Morphology> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    public MorphologyPool(int size, MorphologyFactory factory) {
+        this.size = Math.max(1, size);
+        this.factory = factory;
+    }
+
+    public Morphology borrow() throws IOException {
+        Morphology morphology = idle.poll();
+        if (morphology != null) {
+            return morphology;
+        }
+        if (created.getAndIncrement() < size) {
+            try {
+                return factory.create();
+            } catch (IOException | RuntimeException e) {
+                created.decrementAndGet();
+                throw e;
+            }
+        }
+        created.decrementAndGet();
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for morphology");
+        }
+    }
+
+    public void release(Morphology morphology) {
+        idle.add(morphology);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public record Morphology(LuceneMorphology russian, LuceneMorphology english) {
+    }
+
+    public interface MorphologyFactory {
+        Morphology create() throws IOException;
+    }
+}
@@ -0,0 +1,51 @@
+package searchengine.analyzer;
+
+import lombok.RequiredArgsConstructor;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+import searchengine.dto.AnalyzedPageDTO;
+import searchengine.dto.PageDTO;
+import searchengine.dto.PageTextDTO;
+import searchengine.dto.TokenPositionDTO;
+import searchengine.engines.LemmaEngine;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class PageAnalyzer {
+    private final LemmaEngine lemmaEngine;
+
+    public AnalyzedPageDTO analyze(PageDTO page) {
+        PageTextDTO pageText = getPageText(page.content());
+        String text = getPlainText(pageText);
+        Map<String, List<TokenPositionDTO>> lemmaPositions = lemmaEngine.getLemmaPositions(text);
+        Map<String, Integer> titleLemmas = new HashMap<>();
+        Map<String, Integer> bodyLemmas = new HashMap<>();
+        int titleEnd = pageText.title().length();
+        lemmaPositions.forEach((lemma, positions) -> {
+            for (TokenPositionDTO position : positions) {
+                (position.start() < titleEnd ? titleLemmas : bodyLemmas).merge(lemma, 1, Integer::sum);
+            }
+        });
+        return new AnalyzedPageDTO(page, pageText.title(), text, titleLemmas, bodyLemmas, lemmaPositions);
+    }
+
+    public PageTextDTO getPageText(String html) {
+        if (html == null || html.isEmpty()) {
+            return new PageTextDTO("", "");
+        }
+        Document doc = Jsoup.parse(html);
+        return new PageTextDTO(doc.select("title").text(), doc.select("body").text());
+    }
+
+    public String getPlainText(PageTextDTO pageText) {
+        if (pageText.title().isEmpty()) {
+            return pageText.body();
+        }
+        return pageText.title().concat(" ").concat(pageText.body());
+    }
+}
@@ -0,0 +1,52 @@
+package searchengine.analyzer;
+
+import searchengine.dto.TokenPositionDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class PositionCodec {
+    private static final char FIELD_SEPARATOR = ':';
+    private static final char POSITION_SEPARATOR = ',';
+
+    private PositionCodec() {
+    }
+
+    public static String encode(List<TokenPositionDTO> positions) {
+        StringBuilder builder = new StringBuilder(positions.size() * 16);
+        for (TokenPositionDTO position : positions) {
+            if (!builder.isEmpty()) {
+                builder.append(POSITION_SEPARATOR);
+            }
+            builder.append(position.position()).append(FIELD_SEPARATOR)
+                    .append(position.start()).append(FIELD_SEPARATOR)
+                    .append(position.end());
+        }
+        return builder.toString();
+    }
+
+    public static List<TokenPositionDTO> decode(String encoded, int limit) {
+        List<TokenPositionDTO> positions = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return positions;
+        }
+        int[] fields = new int[3];
+        int field = 0;
+        int value = 0;
+        for (int i = 0; i <= encoded.length() && positions.size() < limit; i++) {
+            char c = i < encoded.length() ? encoded.charAt(i) : POSITION_SEPARATOR;
+            if (c == FIELD_SEPARATOR) {
+                fields[field++] = value;
+                value = 0;
+            } else if (c == POSITION_SEPARATOR) {
+                fields[field] = value;
+                positions.add(new TokenPositionDTO(fields[0], fields[1], fields[2]));
+                field = 0;
+                value = 0;
+            } else {
+                value = value * 10 + (c - '0');
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,119 @@
+package searchengine.analyzer;
+
+import org.springframework.stereotype.Component;
+import searchengine.dto.TokenPositionDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+public class SnippetGenerator {
+    public static final int MAX_MATCHES_PER_LEMMA = 64;
+    private static final int WINDOW_WORDS = 24;
+    private static final int CONTEXT_CHARS = 60;
+    private static final int MAX_SNIPPET_CHARS = 320;
+    private static final String ELLIPSIS = "...";
+
+    public String generate(String text, List<List<TokenPositionDTO>> matchesByLemma) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        List<Match> matches = getMatches(text, matchesByLemma);
+        if (matches.isEmpty()) {
+            int end = snapEnd(text, Math.min(text.length(), MAX_SNIPPET_CHARS), 0);
+            return text.substring(0, end) + (end < text.length() ? ELLIPSIS : "");
+        }
+        int[] window = findBestWindow(matches, matchesByLemma.size());
+        TokenPositionDTO first = matches.get(window[0]).token();
+        TokenPositionDTO last = matches.get(window[1]).token();
+        int start = snapStart(text, Math.max(0, first.start() - CONTEXT_CHARS), first.start());
+        int end = snapEnd(text, Math.min(text.length(), last.end() + CONTEXT_CHARS), last.end());
+        if (end - start > MAX_SNIPPET_CHARS) {
+            end = snapEnd(text, Math.max(first.end(), start + MAX_SNIPPET_CHARS), first.end());
+        }
+        return highlight(text, matches, start, end);
+    }
+
+    private List<Match> getMatches(String text, List<List<TokenPositionDTO>> matchesByLemma) {
+        List<Match> matches = new ArrayList<>();
+        for (int lemma = 0; lemma < matchesByLemma.size(); lemma++) {
+            List<TokenPositionDTO> positions = matchesByLemma.get(lemma);
+            for (int i = 0; i < positions.size() && i < MAX_MATCHES_PER_LEMMA; i++) {
+                TokenPositionDTO token = positions.get(i);
+                if (token.end() <= text.length()) {
+                    matches.add(new Match(lemma, token));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(match -> match.token().position()));
+        return matches;
+    }
+
+    private int[] findBestWindow(List<Match> matches, int lemmaCount) {
+        int[] counts = new int[lemmaCount];
+        int distinct = 0;
+        int bestScore = -1;
+        int[] best = new int[2];
+        int from = 0;
+        for (int to = 0; to < matches.size(); to++) {
+            if (counts[matches.get(to).lemma()]++ == 0) {
+                distinct++;
+            }
+            while (matches.get(to).token().position() - matches.get(from).token().position() >= WINDOW_WORDS) {
+                if (--counts[matches.get(from).lemma()] == 0) {
+                    distinct--;
+                }
+                from++;
+            }
+            int score = distinct * WINDOW_WORDS + to - from + 1;
+            if (score > bestScore) {
+                bestScore = score;
+                best[0] = from;
+                best[1] = to;
+            }
+        }
+        return best;
+    }
+
+    private String highlight(String text, List<Match> matches, int start, int end) {
+        StringBuilder snippet = new StringBuilder(end - start + ELLIPSIS.length() * 2 + 32);
+        if (start > 0) {
+            snippet.append(ELLIPSIS);
+        }
+        int cursor = start;
+        for (Match match : matches) {
+            TokenPositionDTO token = match.token();
+            if (token.start() < cursor || token.end() > end) {
+                continue;
+            }
+            snippet.append(text, cursor, token.start())
+                    .append("<b>").append(text, token.start(), token.end()).append("</b>");
+            cursor = token.end();
+        }
+        snippet.append(text, cursor, end);
+        if (end < text.length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    private int snapStart(String text, int start, int limit) {
+        if (start == 0) {
+            return 0;
+        }
+        int space = text.indexOf(' ', start);
+        return space == -1 || space >= limit ? start : space + 1;
+    }
+
+    private int snapEnd(String text, int end, int limit) {
+        if (end >= text.length()) {
+            return text.length();
+        }
+        int space = text.lastIndexOf(' ', end);
+        return space < limit ? end : space;
+    }
+
+    private record Match(int lemma, TokenPositionDTO token) {
+    }
+}
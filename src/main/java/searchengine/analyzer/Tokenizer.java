@@ -0,0 +1,79 @@
+package searchengine.analyzer;
+
+public class Tokenizer {
+    private static final char NOT_A_LETTER = 0;
+
+    private final CharSequence text;
+    private char[] buffer = new char[32];
+    private int position;
+    private int start;
+    private int end;
+    private String word;
+
+    public Tokenizer(CharSequence text) {
+        this.text = text;
+    }
+
+    public boolean next() {
+        int length = text.length();
+        while (position < length) {
+            while (position < length && toLowerLetter(text.charAt(position)) == NOT_A_LETTER) {
+                position++;
+            }
+            if (position >= length) {
+                return false;
+            }
+            start = position;
+            int wordLength = 0;
+            boolean hasCyrillic = false;
+            boolean hasLatin = false;
+            char letter;
+            while (position < length && (letter = toLowerLetter(text.charAt(position))) != NOT_A_LETTER) {
+                if (letter < 'z' + 1) {
+                    hasLatin = true;
+                } else {
+                    hasCyrillic = true;
+                }
+                if (wordLength == buffer.length) {
+                    char[] grown = new char[buffer.length * 2];
+                    System.arraycopy(buffer, 0, grown, 0, wordLength);
+                    buffer = grown;
+                }
+                buffer[wordLength++] = letter;
+                position++;
+            }
+            end = position;
+            if (hasCyrillic && hasLatin) {
+                continue;
+            }
+            word = new String(buffer, 0, wordLength);
+            return true;
+        }
+        return false;
+    }
+
+    public String word() {
+        return word;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public static char toLowerLetter(char c) {
+        if (c >= 'a' && c <= 'z' || c >= 'а' && c <= 'я') {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z' || c >= 'А' && c <= 'Я') {
+            return (char) (c + 32);
+        }
+        if (c == 'ё' || c == 'Ё') {
+            return 'е';
+        }
+        return NOT_A_LETTER;
+    }
+}
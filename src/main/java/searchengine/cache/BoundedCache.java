@@ -0,0 +1,136 @@
+package searchengine.cache;
+
+import searchengine.dto.statistics.CacheStatisticsItem;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+public class BoundedCache<K, V> {
+    private final String name;
+    private final List<Segment> segments;
+    private final long ttlNanos;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(String name, long maxWeight, int segmentCount, EvictionPolicy evictionPolicy,
+                        Duration ttl, ToLongBiFunction<K, V> weigher) {
+        this.name = name;
+        this.weigher = weigher;
+        this.ttlNanos = ttl == null || ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        int count = Integer.highestOneBit(Math.max(1, segmentCount));
+        long segmentWeight = Math.max(1, maxWeight / count);
+        List<Segment> segmentList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segmentList.add(new Segment(segmentWeight, evictionPolicy == EvictionPolicy.LRU));
+        }
+        this.segments = List.copyOf(segmentList);
+    }
+
+    public V get(K key) {
+        V value = segmentFor(key).get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value, weigher.applyAsLong(key, value));
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        for (Segment segment : segments) {
+            segment.invalidateIf(predicate);
+        }
+    }
+
+    public CacheStatisticsItem getStatistics() {
+        long size = 0;
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+                weight += segment.weight;
+            }
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        double hitRate = requests == 0 ? 0 : (double) hitCount / requests;
+        return new CacheStatisticsItem(name, hitCount, missCount, hitRate, evictions.sum(), size, weight);
+    }
+
+    private Segment segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments.get(hash & (segments.size() - 1));
+    }
+
+    private record CacheEntry<V>(V value, long weight, long expiresAt) {
+    }
+
+    private class Segment {
+        private final long maxWeight;
+        private final LinkedHashMap<K, CacheEntry<V>> map;
+        private long weight;
+
+        private Segment(long maxWeight, boolean accessOrder) {
+            this.maxWeight = maxWeight;
+            this.map = new LinkedHashMap<>(16, 0.75f, accessOrder);
+        }
+
+        private synchronized V get(K key) {
+            CacheEntry<V> entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (ttlNanos != Long.MAX_VALUE && entry.expiresAt() - System.nanoTime() < 0) {
+                map.remove(key);
+                weight -= entry.weight();
+                return null;
+            }
+            return entry.value();
+        }
+
+        private synchronized void put(K key, V value, long entryWeight) {
+            if (entryWeight > maxWeight) {
+                return;
+            }
+            long expiresAt = ttlNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + ttlNanos;
+            CacheEntry<V> previous = map.put(key, new CacheEntry<>(value, entryWeight, expiresAt));
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            weight += entryWeight;
+            Iterator<Map.Entry<K, CacheEntry<V>>> iterator = map.entrySet().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                Map.Entry<K, CacheEntry<V>> eldest = iterator.next();
+                weight -= eldest.getValue().weight();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+
+        private synchronized void invalidateIf(Predicate<K> predicate) {
+            Iterator<Map.Entry<K, CacheEntry<V>>> iterator = map.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, CacheEntry<V>> entry = iterator.next();
+                if (predicate.test(entry.getKey())) {
+                    weight -= entry.getValue().weight();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package searchengine.cache;
+
+public enum EvictionPolicy {
+    LRU,
+    FIFO
+}
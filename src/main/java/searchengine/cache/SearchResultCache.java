@@ -0,0 +1,37 @@
+package searchengine.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.dto.SearchPageDTO;
+import searchengine.dto.statistics.CacheStatisticsItem;
+import searchengine.index.SiteIndexListener;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache implements SiteIndexListener {
+    public static final long ALL_SITES = 0;
+
+    private final BoundedCache<Key, SearchPageDTO> searchCache;
+
+    public SearchPageDTO get(Key key) {
+        return searchCache.get(key);
+    }
+
+    public void put(Key key, SearchPageDTO results) {
+        searchCache.put(key, new SearchPageDTO(List.copyOf(results.data()), results.count(), results.nextCursor()));
+    }
+
+    public CacheStatisticsItem getStatistics() {
+        return searchCache.getStatistics();
+    }
+
+    @Override
+    public void onSiteIndexChanged(long siteId) {
+        searchCache.invalidateIf(key -> key.siteId() == siteId || key.siteId() == ALL_SITES);
+    }
+
+    public record Key(String query, long siteId, long indexVersion, int offset, int limit, String cursor) {
+    }
+}
@@ -0,0 +1,45 @@
+package searchengine.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import searchengine.cache.BoundedCache;
+import searchengine.cache.SearchResultCache;
+import searchengine.dto.SearchDTO;
+import searchengine.dto.SearchPageDTO;
+
+import java.util.List;
+
+@Configuration
+public class CacheConfiguration {
+    private static final long ENTRY_OVERHEAD = 64;
+
+    @Bean
+    public BoundedCache<String, List<String>> lemmaCache(LemmaCacheSettings settings) {
+        return new BoundedCache<>("lemma", settings.getMaxWeight(), settings.getSegments(), settings.getEviction(),
+                null, (word, lemmas) -> {
+                    long weight = ENTRY_OVERHEAD + 2L * word.length();
+                    for (String lemma : lemmas) {
+                        weight += ENTRY_OVERHEAD + 2L * lemma.length();
+                    }
+                    return weight;
+                });
+    }
+
+    @Bean
+    public BoundedCache<SearchResultCache.Key, SearchPageDTO> searchCache(SearchCacheSettings settings) {
+        return new BoundedCache<>("search", settings.getMaxWeight(), settings.getSegments(), settings.getEviction(),
+                settings.getTtl(), (key, results) -> {
+                    long weight = 2 * ENTRY_OVERHEAD
+                            + 2L * (key.query().length() + length(key.cursor()) + length(results.nextCursor()));
+                    for (SearchDTO result : results.data()) {
+                        weight += ENTRY_OVERHEAD + 2L * (length(result.site()) + length(result.siteName())
+                                + length(result.uri()) + length(result.title()) + length(result.snippet()));
+                    }
+                    return weight;
+                });
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,17 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import searchengine.cache.EvictionPolicy;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "lemma-cache")
+public class LemmaCacheSettings {
+    private long maxWeight = 32 * 1024 * 1024;
+    private int segments = 16;
+    private EvictionPolicy eviction = EvictionPolicy.LRU;
+}
@@ -1,22 +1,26 @@
 package searchengine.config;
 
-import org.apache.lucene.morphology.LuceneMorphology;
 import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
 import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import searchengine.analyzer.MorphologyPool;
 
 import java.io.IOException;
 
 @Configuration
 public class LemmaLanguageConfiguration {
     @Bean
-    public LuceneMorphology russianLuceneMorphology() throws IOException {
-        return new RussianLuceneMorphology();
+    public MorphologyPool indexingMorphologyPool(SitesList config) {
+        return new MorphologyPool(config.getLemmatizerThreadCount(), LemmaLanguageConfiguration::createMorphology);
     }
 
     @Bean
-    public LuceneMorphology englishLuceneMorphology() throws IOException {
-        return new EnglishLuceneMorphology();
+    public MorphologyPool searchMorphologyPool(SearchSettings settings) {
+        return new MorphologyPool(settings.getSearchThreadCount(), LemmaLanguageConfiguration::createMorphology);
+    }
+
+    private static MorphologyPool.Morphology createMorphology() throws IOException {
+        return new MorphologyPool.Morphology(new RussianLuceneMorphology(), new EnglishLuceneMorphology());
     }
 }
@@ -0,0 +1,19 @@
+package searchengine.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import searchengine.scoring.Bm25ScoringModel;
+import searchengine.scoring.RankSumScoringModel;
+import searchengine.scoring.ScoringModel;
+
+@Configuration
+public class ScoringConfiguration {
+
+    @Bean
+    public ScoringModel scoringModel(SearchSettings settings) {
+        return switch (settings.getScoring()) {
+            case BM25 -> new Bm25ScoringModel(settings.getBm25K1(), settings.getBm25B());
+            case RANK_SUM -> new RankSumScoringModel();
+        };
+    }
+}
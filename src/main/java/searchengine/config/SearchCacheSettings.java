@@ -0,0 +1,20 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import searchengine.cache.EvictionPolicy;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "search-cache")
+public class SearchCacheSettings {
+    private long maxWeight = 64 * 1024 * 1024;
+    private int segments = 16;
+    private EvictionPolicy eviction = EvictionPolicy.LRU;
+    private Duration ttl = Duration.ofMinutes(10);
+}
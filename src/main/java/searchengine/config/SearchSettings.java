@@ -0,0 +1,24 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import searchengine.scoring.Scoring;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "search-settings")
+public class SearchSettings {
+    private Scoring scoring = Scoring.BM25;
+    private float bm25K1 = 1.2f;
+    private float bm25B = 0.75f;
+    private float stopLemmaShare = 0.9f;
+    private int searchThreads = 0;
+    private int searchQueueCapacity = 256;
+
+    public int getSearchThreadCount() {
+        return searchThreads > 0 ? searchThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -15,4 +15,20 @@ public class SitesList {
     private List<Site> sites;
     private String userAgent;
     private String referrer;
+    private int maxRequestsPerHost = 8;
+    private int requestTimeout = 10000;
+    private int batchSize = 100;
+    private int jdbcBatchSize = 1000;
+    private int pipelineQueueCapacity = 200;
+    private int lemmatizerThreads = 0;
+    private boolean storeHtml = false;
+    private String indexPath = "index";
+    private int maxIndexSegments = 8;
+    private boolean bloomFilter = false;
+    private long bloomExpectedUrls = 1_000_000;
+    private double bloomFalsePositiveRate = 0.001;
+
+    public int getLemmatizerThreadCount() {
+        return lemmatizerThreads > 0 ? lemmatizerThreads : Runtime.getRuntime().availableProcessors();
+    }
 }
@@ -19,8 +19,8 @@ public record ApiController(StatisticsServiceImpl statisticsService, IndexingSer
     }
 
     @GetMapping("/startIndexing")
-    public ResultDTO startIndexing() {
-        return indexingService.startIndexing();
+    public ResultDTO startIndexing(@RequestParam(name = "incremental", required = false, defaultValue = "false") boolean incremental) {
+        return indexingService.startIndexing(incremental);
     }
 
     @GetMapping("/stopIndexing")
@@ -36,7 +36,8 @@ public record ApiController(StatisticsServiceImpl statisticsService, IndexingSer
     @GetMapping("/search")
     public ResultDTO search(@RequestParam(name = "query", required = false, defaultValue = "") String query,
                             @RequestParam(name = "site", required = false, defaultValue = "") String site,
-                            @RequestParam(name = "offset", required = false, defaultValue = "0") int offset) {
-        return searchService.searchSiteSelect(query, site, offset);
+                            @RequestParam(name = "offset", required = false, defaultValue = "0") int offset,
+                            @RequestParam(name = "cursor", required = false) String cursor) {
+        return searchService.searchSiteSelect(query, site, offset, cursor);
     }
 }
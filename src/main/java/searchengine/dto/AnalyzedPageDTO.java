@@ -0,0 +1,13 @@
+package searchengine.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record AnalyzedPageDTO(PageDTO page, String title, String text,
+                              Map<String, Integer> titleLemmas, Map<String, Integer> bodyLemmas,
+                              Map<String, List<TokenPositionDTO>> lemmaPositions) {
+
+    public AnalyzedPageDTO(PageDTO page) {
+        this(page, "", "", Map.of(), Map.of(), Map.of());
+    }
+}
@@ -1,4 +1,4 @@
 package searchengine.dto;
 
-public record IndexDTO(long pageID, long lemmaID, float rank){
+public record IndexDTO(long pageID, long lemmaID, float rank, String positions){
 }
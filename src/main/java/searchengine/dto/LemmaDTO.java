@@ -1,4 +0,0 @@
-package searchengine.dto;
-
-public record LemmaDTO(String lemma, int frequency) {
-}
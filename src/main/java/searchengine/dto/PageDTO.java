@@ -1,4 +1,8 @@
 package searchengine.dto;
 
-public record PageDTO(String url, String content, int code) {
+public record PageDTO(String url, String content, int code, String etag, String lastModified, String contentHash) {
+
+    public PageDTO(String url, String content, int code) {
+        this(url, content, code, null, null, null);
+    }
 }
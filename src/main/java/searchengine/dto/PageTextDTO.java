@@ -0,0 +1,4 @@
+package searchengine.dto;
+
+public record PageTextDTO(String title, String body) {
+}
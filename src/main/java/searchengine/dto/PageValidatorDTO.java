@@ -0,0 +1,4 @@
+package searchengine.dto;
+
+public record PageValidatorDTO(long id, String path, String etag, String lastModified, String contentHash) {
+}
@@ -1,5 +1,6 @@
 package searchengine.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.http.HttpStatus;
@@ -14,6 +15,8 @@ public class ResultDTO {
     private int count;
     private HttpStatus status;
     private List<SearchDTO> data;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
     public ResultDTO(boolean result) {
         this.result = result;
     }
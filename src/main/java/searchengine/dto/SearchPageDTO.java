@@ -0,0 +1,6 @@
+package searchengine.dto;
+
+import java.util.List;
+
+public record SearchPageDTO(List<SearchDTO> data, int count, String nextCursor) {
+}
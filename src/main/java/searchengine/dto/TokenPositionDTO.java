@@ -0,0 +1,4 @@
+package searchengine.dto;
+
+public record TokenPositionDTO(int position, int start, int end) {
+}
@@ -0,0 +1,5 @@
+package searchengine.dto.statistics;
+
+public record CacheStatisticsItem(String name, long hits, long misses, double hitRate, long evictions,
+                                  long size, long weight) {
+}
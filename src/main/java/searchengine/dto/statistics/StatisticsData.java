@@ -10,4 +10,5 @@ import java.util.List;
 public class StatisticsData {
     private TotalStatistics total;
     private List<DetailedStatisticsItem> detailed;
+    private List<CacheStatisticsItem> caches;
 }
@@ -1,59 +1,98 @@
 package searchengine.engines;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import searchengine.config.LemmaLanguageConfiguration;
+import searchengine.analyzer.MorphologyPool;
+import searchengine.analyzer.Tokenizer;
+import searchengine.cache.BoundedCache;
+import searchengine.dto.TokenPositionDTO;
+import searchengine.dto.statistics.CacheStatisticsItem;
 
 import java.io.IOException;
 import java.util.*;
 
 @Component
 
-public record LemmaEngine(LemmaLanguageConfiguration lemmaLanguageConfiguration) {
+public record LemmaEngine(@Qualifier("indexingMorphologyPool") MorphologyPool indexingMorphologyPool,
+                          @Qualifier("searchMorphologyPool") MorphologyPool searchMorphologyPool,
+                          BoundedCache<String, List<String>> lemmaCache) {
 
 
-    public Map<String, Integer> getLemmaMap(String text) {
-        text = arrayContainsWords(text);
-        Map<String, Integer> lemmaList = new HashMap<>();
-        String[] elements = text.toLowerCase(Locale.ROOT).split("\\s+");
-        List<String> wordsList;
-        int count;
-        for (String el : elements) {
-            try {
-                wordsList = getLemma(el);
-            } catch (Exception e) {
-                throw new RuntimeException(e.getMessage());
-            }
-            for (String word : wordsList) {
-                count = lemmaList.getOrDefault(word, 0);
-                lemmaList.put(word, count + 1);
+    public Map<String, List<TokenPositionDTO>> getLemmaPositions(String text) {
+        Map<String, List<TokenPositionDTO>> lemmaPositions = new HashMap<>();
+        Tokenizer tokenizer = new Tokenizer(text);
+        int position = 0;
+        while (tokenizer.next()) {
+            TokenPositionDTO token = new TokenPositionDTO(position++, tokenizer.start(), tokenizer.end());
+            for (String lemma : getTokenLemma(tokenizer.word(), indexingMorphologyPool)) {
+                lemmaPositions.computeIfAbsent(lemma, key -> new ArrayList<>()).add(token);
             }
         }
+        return lemmaPositions;
+    }
+
+    public List<String> getLemmaList(String text) {
+        List<String> lemmaList = new ArrayList<>();
+        Tokenizer tokenizer = new Tokenizer(text);
+        while (tokenizer.next()) {
+            lemmaList.addAll(getTokenLemma(tokenizer.word(), searchMorphologyPool));
+        }
         return lemmaList;
     }
 
-    public List<String> getLemma(String word) throws IOException {
+    private List<String> getTokenLemma(String word, MorphologyPool morphologyPool) {
+        try {
+            return getLemma(word, morphologyPool);
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private List<String> getLemma(String word, MorphologyPool morphologyPool) throws IOException {
+        List<String> cachedLemmas = lemmaCache.get(word);
+        if (cachedLemmas != null) {
+            return cachedLemmas;
+        }
+        List<String> lemmaList = List.copyOf(findLemma(word, morphologyPool));
+        lemmaCache.put(word, lemmaList);
+        return lemmaList;
+    }
+
+    public CacheStatisticsItem getCacheStatistics() {
+        return lemmaCache.getStatistics();
+    }
+
+    private List<String> findLemma(String word, MorphologyPool morphologyPool) throws IOException {
         List<String> lemmaList = new ArrayList<>();
-        if (checkLanguage(word).equals("Russian")) {
-            List<String> baseRusForm = lemmaLanguageConfiguration.russianLuceneMorphology().getNormalForms(word);
-            if (!word.isEmpty() && isCorrectWordForm(word, "Russian")) {
-                lemmaList.add(baseRusForm.get(0));
-            }
-        } else if (checkLanguage(word).equals("English")) {
-            List<String> baseEngForm = lemmaLanguageConfiguration.englishLuceneMorphology().getNormalForms(word);
-            if (!word.isEmpty() && isCorrectWordForm(word, "English")) {
-                lemmaList.add(baseEngForm.get(0));
+        String language = checkLanguage(word);
+        if (language.isEmpty()) {
+            return lemmaList;
+        }
+        MorphologyPool.Morphology morphology = morphologyPool.borrow();
+        try {
+            if (language.equals("Russian")) {
+                List<String> baseRusForm = morphology.russian().getNormalForms(word);
+                if (isCorrectWordForm(word, "Russian", morphology)) {
+                    lemmaList.add(baseRusForm.get(0));
+                }
+            } else if (language.equals("English")) {
+                List<String> baseEngForm = morphology.english().getNormalForms(word);
+                if (isCorrectWordForm(word, "English", morphology)) {
+                    lemmaList.add(baseEngForm.get(0));
+                }
             }
+        } finally {
+            morphologyPool.release(morphology);
         }
-
         return lemmaList;
     }
 
-    private boolean isCorrectWordForm(String word, String language) throws IOException {
+    private boolean isCorrectWordForm(String word, String language, MorphologyPool.Morphology morphology) {
         if (language.equals("Russian")) {
-            List<String> morphForm = lemmaLanguageConfiguration.russianLuceneMorphology().getMorphInfo(word);
+            List<String> morphForm = morphology.russian().getMorphInfo(word);
             return checkRussianPartOfSpeech(morphForm.get(0));
         } else if (language.equals("English")) {
-            List<String> morphForm = lemmaLanguageConfiguration.englishLuceneMorphology().getMorphInfo(word);
+            List<String> morphForm = morphology.english().getMorphInfo(word);
             return checkEnglishPartOfSpeech(morphForm.get(0));
         }
         return false;
@@ -69,36 +108,39 @@ public record LemmaEngine(LemmaLanguageConfiguration lemmaLanguageConfiguration)
 
 
     private String checkLanguage(String word) {
-        String russianAlphabet = "[а-яА-Я]+";
-        String englishAlphabet = "[a-zA-Z]+";
-
-        if (word.matches(russianAlphabet)) {
-            return "Russian";
-        } else if (word.matches(englishAlphabet)) {
-            return "English";
-        } else {
+        if (word.isEmpty()) {
             return "";
         }
+        boolean russian = false;
+        boolean english = false;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c >= 'а' && c <= 'я' || c >= 'А' && c <= 'Я') {
+                russian = true;
+            } else if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                english = true;
+            } else {
+                return "";
+            }
+        }
+        if (russian == english) {
+            return "";
+        }
+        return russian ? "Russian" : "English";
     }
 
-    private String arrayContainsWords(String text) {
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("([^а-яa-z\\s])", " ").trim();
-    }
-
-    public Collection<Integer> findLemmaIndexInText(String content, String lemma) throws IOException {
-        List<Integer> lemmaIndexList = new ArrayList<>();
-        String[] elements = content.toLowerCase(Locale.ROOT).split("\\p{Punct}|\\s");
-        int index = 0;
-        List<String> lemmas;
-        for (String el : elements) {
-            lemmas = getLemma(el);
-            for (String lem : lemmas) {
-                if (lem.equals(lemma)) {
-                    lemmaIndexList.add(index);
+    public List<TokenPositionDTO> findLemmaIndexInText(String content, Collection<String> lemmas) {
+        List<TokenPositionDTO> lemmaIndexList = new ArrayList<>();
+        Tokenizer tokenizer = new Tokenizer(content);
+        int position = 0;
+        while (tokenizer.next()) {
+            for (String lemma : getTokenLemma(tokenizer.word(), searchMorphologyPool)) {
+                if (lemmas.contains(lemma)) {
+                    lemmaIndexList.add(new TokenPositionDTO(position, tokenizer.start(), tokenizer.end()));
+                    break;
                 }
             }
-            index += el.length() + 1;
+            position++;
         }
         return lemmaIndexList;
     }
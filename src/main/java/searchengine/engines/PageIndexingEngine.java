@@ -0,0 +1,166 @@
+package searchengine.engines;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import searchengine.config.Site;
+import searchengine.config.SitesList;
+import searchengine.dto.IndexDTO;
+import searchengine.dto.PageDTO;
+import searchengine.dto.AnalyzedPageDTO;
+import searchengine.index.InvertedIndex;
+import searchengine.lemmaindexer.LemmaIndexer;
+import searchengine.model.Generation;
+import searchengine.model.LemmaModel;
+import searchengine.model.PageModel;
+import searchengine.model.PageTextModel;
+import searchengine.model.SiteModel;
+import searchengine.model.Status;
+import searchengine.pagesearch.PageFetcher;
+import searchengine.pagesearch.UrlNormalizer;
+import searchengine.repository.BulkWriteRepository;
+import searchengine.repository.IndexRepository;
+import searchengine.repository.LemmaRepository;
+import searchengine.repository.PageRepository;
+import searchengine.repository.PageTextRepository;
+import searchengine.repository.SiteRepository;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PageIndexingEngine {
+
+    private static final int ERROR_CODE = 400;
+    private static final Set<Integer> GONE_CODES = Set.of(404, 410);
+
+    private final PageRepository pageRepository;
+    private final SiteRepository siteRepository;
+    private final LemmaRepository lemmaRepository;
+    private final IndexRepository indexRepository;
+    private final BulkWriteRepository bulkWriteRepository;
+    private final PageTextRepository pageTextRepository;
+    private final LemmaIndexer lemmaIndexer;
+    private final InvertedIndex invertedIndex;
+    private final SitesList config;
+    private final PageFetcher pageFetcher;
+    private final TransactionTemplate transactionTemplate;
+    private final UrlNormalizer urlNormalizer = new UrlNormalizer();
+    private final Map<String, Object> siteLocks = new ConcurrentHashMap<>();
+
+    public Result indexPage(Site siteConfig, String pageUrl) throws InterruptedException {
+        if (siteRepository.existsByUrlAndStatus(siteConfig.getUrl(), Status.INDEXING)) {
+            log.info("Site is indexing, page skipped " + pageUrl);
+            return Result.SITE_INDEXING;
+        }
+        PageDTO page;
+        try {
+            page = pageFetcher.fetchPage(pageUrl);
+        } catch (IOException e) {
+            log.warn("Page fetch failed, index left unchanged " + pageUrl + ": " + e.getMessage());
+            return Result.FETCH_FAILED;
+        }
+        if (page == null) {
+            log.info("Not an html page, skipped " + pageUrl);
+            return Result.NOT_HTML;
+        }
+        if (page.code() >= ERROR_CODE && !GONE_CODES.contains(page.code())) {
+            log.warn("Page answered with code " + page.code() + ", index left unchanged " + pageUrl);
+            return Result.FETCH_FAILED;
+        }
+        AnalyzedPageDTO pageLemmas = lemmaIndexer.analyzePage(page);
+        String path = urlNormalizer.getPath(pageUrl, siteConfig.getUrl());
+        synchronized (siteLocks.computeIfAbsent(siteConfig.getUrl(), key -> new Object())) {
+            SiteModel site = getSiteModelRecord(siteConfig);
+            IndexedPage indexedPage = transactionTemplate.execute(status -> savePage(site, path, pageLemmas));
+            invertedIndex.updatePage(site.getId(), indexedPage.pageId(), indexedPage.postings());
+        }
+        log.info("Page reindexed " + pageUrl + " with code " + page.code());
+        return Result.INDEXED;
+    }
+
+    private IndexedPage savePage(SiteModel site, String path, AnalyzedPageDTO pageLemmas) {
+        PageDTO page = pageLemmas.page();
+        PageModel pageModel = pageRepository.findBySiteIdAndPath(site, path);
+        if (pageModel != null) {
+            List<Long> oldLemmaIds = indexRepository.findLemmaIdsByPageIds(List.of(pageModel.getId()));
+            indexRepository.deleteByPageIds(List.of(pageModel.getId()));
+            if (!oldLemmaIds.isEmpty()) {
+                lemmaRepository.updateFrequency(oldLemmaIds, -1);
+            }
+        } else {
+            pageModel = new PageModel(site, path, page.code(), null);
+        }
+        pageModel.setCode(page.code());
+        pageModel.setContent(config.isStoreHtml() ? page.content() : null);
+        pageModel.setEtag(page.etag());
+        pageModel.setLastModified(page.lastModified());
+        pageModel.setContentHash(page.contentHash());
+        pageRepository.saveAndFlush(pageModel);
+        pageTextRepository.save(new PageTextModel(pageModel.getId(), pageLemmas.title(), pageLemmas.text()));
+
+        Set<String> pageWords = new HashSet<>(pageLemmas.titleLemmas().keySet());
+        pageWords.addAll(pageLemmas.bodyLemmas().keySet());
+        List<LemmaModel> lemmaList = new ArrayList<>();
+        if (!pageWords.isEmpty() && page.code() < ERROR_CODE) {
+            List<LemmaModel> existingLemmas = lemmaRepository.findLemmaListBySite(new ArrayList<>(pageWords), site);
+            List<Long> existingIds = new ArrayList<>();
+            for (LemmaModel lemma : existingLemmas) {
+                pageWords.remove(lemma.getLemma());
+                existingIds.add(lemma.getId());
+            }
+            if (!existingIds.isEmpty()) {
+                lemmaRepository.updateFrequency(existingIds, 1);
+            }
+            List<LemmaModel> newLemmas = new ArrayList<>();
+            for (String word : pageWords) {
+                newLemmas.add(new LemmaModel(word, 1, site));
+            }
+            lemmaRepository.saveAllAndFlush(newLemmas);
+            lemmaList.addAll(existingLemmas);
+            lemmaList.addAll(newLemmas);
+        }
+        Map<String, IndexDTO> postings = saveIndexes(pageModel, pageLemmas, lemmaList);
+        lemmaRepository.deleteUnusedBySite(site);
+        return new IndexedPage(pageModel.getId(), postings);
+    }
+
+    private Map<String, IndexDTO> saveIndexes(PageModel page, AnalyzedPageDTO analyzedPage, List<LemmaModel> lemmaList) {
+        Map<String, Float> ranks = lemmaIndexer.getPageRanks(analyzedPage);
+        Map<String, IndexDTO> postings = new HashMap<>(lemmaList.size() * 4 / 3 + 1);
+        for (LemmaModel lemma : lemmaList) {
+            postings.put(lemma.getLemma(), new IndexDTO(page.getId(), lemma.getId(), ranks.get(lemma.getLemma()),
+                    lemmaIndexer.getPositions(analyzedPage, lemma.getLemma())));
+        }
+        bulkWriteRepository.insertIndexes(new ArrayList<>(postings.values()));
+        return postings;
+    }
+
+    private SiteModel getSiteModelRecord(Site siteConfig) {
+        SiteModel site = siteRepository.findByUrlAndGeneration(siteConfig.getUrl(), Generation.LIVE);
+        if (site == null) {
+            site = new SiteModel();
+            site.setUrl(siteConfig.getUrl());
+            site.setName(siteConfig.getName());
+            site.setStatus(Status.INDEXED);
+            site.setStatusTime(new Date());
+            siteRepository.saveAndFlush(site);
+        }
+        return site;
+    }
+
+    public enum Result {
+        INDEXED,
+        SITE_INDEXING,
+        NOT_HTML,
+        FETCH_FAILED,
+        INTERRUPTED
+    }
+
+    private record IndexedPage(long pageId, Map<String, IndexDTO> postings) {
+    }
+}
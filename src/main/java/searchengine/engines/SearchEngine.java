@@ -1,222 +1,229 @@
 package searchengine.engines;
 
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.springframework.stereotype.Component;
+import searchengine.analyzer.PageAnalyzer;
+import searchengine.analyzer.PositionCodec;
+import searchengine.analyzer.SnippetGenerator;
+import searchengine.config.SearchSettings;
+import searchengine.dto.PageTextDTO;
 import searchengine.dto.SearchDTO;
+import searchengine.dto.SearchPageDTO;
+import searchengine.dto.TokenPositionDTO;
+import searchengine.index.InvertedIndex;
+import searchengine.index.ResultCursor;
+import searchengine.index.ScoredPage;
+import searchengine.index.SiteIndex;
+import searchengine.index.TopKCollector;
 import searchengine.model.IndexModel;
-import searchengine.model.LemmaModel;
 import searchengine.model.PageModel;
+import searchengine.model.PageTextModel;
 import searchengine.model.SiteModel;
 import searchengine.repository.IndexRepository;
-import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
+import searchengine.repository.PageTextRepository;
+import searchengine.scoring.CorpusStatistics;
+import searchengine.scoring.MaxScoreEvaluator;
+import searchengine.scoring.QueryPlan;
+import searchengine.scoring.ScoringModel;
+import searchengine.scoring.TermScorer;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
-public record SearchEngine(LemmaEngine lemmaEngine, LemmaRepository lemmaRepository, PageRepository pageRepository,
-                           IndexRepository indexRepository) {
+public record SearchEngine(LemmaEngine lemmaEngine, PageAnalyzer pageAnalyzer, SnippetGenerator snippetGenerator,
+                           InvertedIndex invertedIndex, PageRepository pageRepository, PageTextRepository pageTextRepository,
+                           IndexRepository indexRepository, ScoringModel scoringModel,
+                           SearchSettings searchSettings, ExecutorService searchExecutor) {
 
     private static final int TITLE_MAX_LENGTH = 300;
-    private static final int SNIPPET_STRINGS_LIMIT = 3;
-    private static final int SNIPPET_PREPEND_WORDS_LIMIT = 4;
-    private static final int SNIPPET_POST_WORDS_LIMIT = 3;
 
-    private List<SearchDTO> getSearchDtoList(ConcurrentHashMap<PageModel, Float> pageList,
-                                             List<String> textLemmaList) {
-        List<SearchDTO> searchDtoList = new ArrayList<>();
-        StringBuilder titleStringBuilder = new StringBuilder();
-        for (PageModel page : pageList.keySet()) {
+    private List<SearchDTO> getSearchDtoList(List<ScoredPage> scoredPages, float maxScore,
+                                             Collection<Long> lemmaIds, List<String> textLemmaList) {
+        List<Long> pageIds = scoredPages.stream().map(ScoredPage::pageId).toList();
+        Map<Long, PageModel> pages = new HashMap<>();
+        pageRepository.findAllById(pageIds).forEach(page -> pages.put(page.getId(), page));
+        Map<Long, PageTextModel> pageTexts = new HashMap<>();
+        pageTextRepository.findAllById(pageIds).forEach(pageText -> pageTexts.put(pageText.getPageId(), pageText));
+        Map<Long, List<List<TokenPositionDTO>>> pagePositions = getPagePositions(
+                indexRepository.findByPageIdsAndLemmaIds(pageIds, lemmaIds));
+        Set<String> queryLemmas = new HashSet<>(textLemmaList);
+        List<CompletableFuture<SearchDTO>> results = new ArrayList<>(scoredPages.size());
+        for (ScoredPage scoredPage : scoredPages) {
+            PageModel page = pages.get(scoredPage.pageId());
+            if (page == null) {
+                continue;
+            }
             String uri = page.getPath();
-            String content = page.getContent();
             SiteModel pageSite = page.getSiteId();
             String site = pageSite.getUrl();
             String siteName = pageSite.getName();
-            String title = clearCodeFromTag(content, "title");
-            if (title.length() > TITLE_MAX_LENGTH) {
-                title = title.substring(0, TITLE_MAX_LENGTH);
-            }
-            String body = clearCodeFromTag(content, "body");
-            titleStringBuilder.append(title).append(body);
-            float pageValue = pageList.get(page);
-            List<Integer> lemmaIndex = new ArrayList<>();
-            for (String lemma : textLemmaList) {
-                try {
-                    lemmaIndex.addAll(lemmaEngine.findLemmaIndexInText(titleStringBuilder.toString(), lemma));
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
+            float pageValue = scoredPage.score() / maxScore;
+            PageTextModel pageTextModel = pageTexts.get(page.getId());
+            if (pageTextModel != null) {
+                String title = pageTextModel.getTitle();
+                String text = pageTextModel.getText();
+                List<List<TokenPositionDTO>> positions = pagePositions.getOrDefault(page.getId(), List.of());
+                results.add(CompletableFuture.supplyAsync(() -> new SearchDTO(site, siteName, uri, getTitle(title),
+                        snippetGenerator.generate(text, positions), pageValue), searchExecutor));
+            } else {
+                String content = page.getContent();
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    PageTextDTO pageText = pageAnalyzer.getPageText(content);
+                    String text = pageAnalyzer.getPlainText(pageText);
+                    List<TokenPositionDTO> positions = lemmaEngine.findLemmaIndexInText(text, queryLemmas);
+                    return new SearchDTO(site, siteName, uri, getTitle(pageText.title()),
+                            snippetGenerator.generate(text, List.of(positions)), pageValue);
+                }, searchExecutor));
             }
-            Collections.sort(lemmaIndex);
-            List<String> wordList = getWordsFromSiteContent(titleStringBuilder.toString(), lemmaIndex);
-            StringBuilder snippetBuilder = buildSnippet(wordList);
-            searchDtoList.add(new SearchDTO(site, siteName, uri, title, snippetBuilder.toString(), pageValue));
         }
-        return searchDtoList;
+        try {
+            return results.stream().map(CompletableFuture::join).collect(Collectors.toCollection(ArrayList::new));
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Snippet generation failed", e.getCause());
+        }
     }
 
-    private StringBuilder buildSnippet(List<String> wordList) {
-        StringBuilder snippet = new StringBuilder();
-        for (String s : wordList) {
-            snippet.append(s).append(" ");
+    private String getTitle(String title) {
+        return title.length() > TITLE_MAX_LENGTH ? title.substring(0, TITLE_MAX_LENGTH) : title;
+    }
+
+    private Map<Long, List<List<TokenPositionDTO>>> getPagePositions(List<IndexModel> indexList) {
+        Map<Long, List<List<TokenPositionDTO>>> pagePositions = new HashMap<>();
+        for (IndexModel index : indexList) {
+            pagePositions.computeIfAbsent(index.getPage().getId(), id -> new ArrayList<>())
+                    .add(PositionCodec.decode(index.getPositions(), SnippetGenerator.MAX_MATCHES_PER_LEMMA));
         }
-        return snippet;
+        return pagePositions;
     }
 
-    private List<String> getWordsFromSiteContent(String content, List<Integer> lemmaIndex) {
-        List<String> result = new ArrayList<>();
-        System.out.println("Поиск на странице, количество лемм " + lemmaIndex.size());
-        Collections.shuffle(lemmaIndex);
-        for (int i = 0; i < SNIPPET_STRINGS_LIMIT; i++) {
-            int start = lemmaIndex.get(i);
-            int end = content.indexOf(" ", start);
-            int next = i + 1;
-            while (next < lemmaIndex.size() && 0 < lemmaIndex.get(next) - end && lemmaIndex.get(next) - end < 5) {
-                end = content.indexOf(" ", lemmaIndex.get(next));
-                next += 1;
-            }
-            i = next - 1;
-            String word = content.substring(start, end);
-            int endTextIndex = end;
-            for (int j = 0; j < SNIPPET_POST_WORDS_LIMIT; j++) {
-                if (content.lastIndexOf(" ", endTextIndex) != -1) {
-                    endTextIndex = content.indexOf(" ", endTextIndex + 1);
-                }
+    private QueryPlan planQuery(List<SiteIndex> siteIndexes, List<String> lemmas) {
+        long pageCount = 0;
+        long totalPageLength = 0;
+        for (SiteIndex siteIndex : siteIndexes) {
+            pageCount += siteIndex.pageCount();
+            totalPageLength += siteIndex.totalPageLength();
+        }
+        Map<String, Long> documentFrequencies = new HashMap<>();
+        for (String lemma : lemmas) {
+            long documentFrequency = 0;
+            for (SiteIndex siteIndex : siteIndexes) {
+                documentFrequency += siteIndex.documentFrequency(lemma);
             }
-            int startTextIndex = start;
-            String prependWordContent = content.substring(0, startTextIndex);
-            for (int j = 0; j < SNIPPET_PREPEND_WORDS_LIMIT; j++) {
-                if (prependWordContent.lastIndexOf(" ") != -1) {
-                    startTextIndex = prependWordContent.lastIndexOf(" ");
-                    prependWordContent = content.substring(0, startTextIndex);
-                }
+            if (documentFrequency == 0) {
+                return QueryPlan.EMPTY;
             }
-            String text = content.substring(startTextIndex, endTextIndex).replace(word, "<b>".concat(word).concat("</b>"));
-            result.add("..." + text + "..." + "\n");
+            documentFrequencies.put(lemma, documentFrequency);
         }
-        result.sort(Comparator.comparing(String::length).reversed());
-        return result;
-    }
-
-    private Map<PageModel, Float> getRelevanceFromPage(List<PageModel> pageList,
-                                                       List<IndexModel> indexList) {
-        Map<PageModel, Float> relevanceMap = new HashMap<>();
-        int i = 0;
-        while (i < pageList.size()) {
-            PageModel page = pageList.get(i);
-            float relevance = 0;
-            for (IndexModel index : indexList) {
-                if (index.getPage() == page) {
-                    relevance += index.getRank();
-                }
+        List<String> ordered = new ArrayList<>(lemmas);
+        ordered.sort(Comparator.comparing((String lemma) -> documentFrequencies.get(lemma)).thenComparing(lemma -> lemma));
+        List<String> requiredLemmas = new ArrayList<>();
+        List<String> optionalLemmas = new ArrayList<>();
+        float stopLemmaShare = searchSettings.getStopLemmaShare();
+        for (String lemma : ordered) {
+            if (!requiredLemmas.isEmpty() && stopLemmaShare > 0
+                    && documentFrequencies.get(lemma) > stopLemmaShare * pageCount) {
+                optionalLemmas.add(lemma);
+            } else {
+                requiredLemmas.add(lemma);
             }
-            relevanceMap.put(page, relevance);
-            i++;
         }
-        Map<PageModel, Float> allRelevanceMap = new HashMap<>();
-        relevanceMap.keySet().forEach(page -> {
-            float relevance = relevanceMap.get(page) / Collections.max(relevanceMap.values());
-            allRelevanceMap.put(page, relevance);
-        });
+        CorpusStatistics statistics = new CorpusStatistics(pageCount,
+                pageCount == 0 ? 0 : (double) totalPageLength / pageCount);
+        return new QueryPlan(requiredLemmas, getTermScorers(statistics, requiredLemmas, documentFrequencies),
+                optionalLemmas, getTermScorers(statistics, optionalLemmas, documentFrequencies));
+    }
 
-        List<Entry<PageModel, Float>> sortList = new ArrayList<>(allRelevanceMap.entrySet());
-        sortList.sort(Entry.comparingByValue(Comparator.reverseOrder()));
-        Map<PageModel, Float> map = new ConcurrentHashMap<>();
-        Entry<PageModel, Float> pageModelFloatEntry;
-        int y = 0;
-        while (y < sortList.size()) {
-            pageModelFloatEntry = sortList.get(y);
-            map.putIfAbsent(pageModelFloatEntry.getKey(), pageModelFloatEntry.getValue());
-            y++;
+    private TermScorer[] getTermScorers(CorpusStatistics statistics, List<String> lemmas,
+                                        Map<String, Long> documentFrequencies) {
+        TermScorer[] scorers = new TermScorer[lemmas.size()];
+        for (int i = 0; i < scorers.length; i++) {
+            scorers[i] = scoringModel.termScorer(statistics, documentFrequencies.get(lemmas.get(i)));
         }
-        return map;
+        return scorers;
     }
 
-    public List<LemmaModel> getLemmaModelFromSite(List<String> lemmas, SiteModel site) {
-        lemmaRepository.flush();
-        List<LemmaModel> lemmaModels = lemmaRepository.findLemmaListBySite(lemmas, site);
-        List<LemmaModel> result = new ArrayList<>(lemmaModels);
-        result.sort(Comparator.comparingInt(LemmaModel::getFrequency));
-        return result;
-    }
 
-    public List<String> getLemmaFromSearchText(String text) {
-        String[] words = text.toLowerCase(Locale.ROOT).split(" ");
-        List<String> lemmaList = new ArrayList<>();
-        int i = 0;
-        List<String> list;
-        while (i < words.length) {
-            String lemma = words[i];
-            try {
-                list = lemmaEngine.getLemma(lemma);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+    private TopKCollector collectTopPages(List<SiteIndex> siteIndexes, MaxScoreEvaluator evaluator, int capacity,
+                                          ResultCursor after, Set<Long> lemmaIds) {
+        if (siteIndexes.size() == 1) {
+            TopKCollector collector = new TopKCollector(capacity, after);
+            evaluator.evaluate(siteIndexes.get(0), lemmaIds, collector);
+            return collector;
+        }
+        List<Future<SiteResult>> futures = new ArrayList<>(siteIndexes.size());
+        for (SiteIndex siteIndex : siteIndexes) {
+            futures.add(searchExecutor.submit(() -> {
+                Set<Long> siteLemmaIds = new HashSet<>();
+                TopKCollector siteCollector = new TopKCollector(capacity, after);
+                evaluator.evaluate(siteIndex, siteLemmaIds, siteCollector);
+                return new SiteResult(siteCollector, siteLemmaIds);
+            }));
+        }
+        List<TopKCollector> collectors = new ArrayList<>(futures.size());
+        try {
+            for (Future<SiteResult> future : futures) {
+                SiteResult siteResult = future.get();
+                collectors.add(siteResult.collector());
+                lemmaIds.addAll(siteResult.lemmaIds());
             }
-            lemmaList.addAll(list);
-            i++;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Site search failed", e.getCause());
         }
-        return lemmaList;
+        return TopKCollector.merge(collectors, capacity, after);
     }
 
-    public List<SearchDTO> createSearchDTOList(List<LemmaModel> lemmaList, List<String> textLemmaList,
-                                               int start, int limit, List<SiteModel> sites) {
-        List<SearchDTO> result = new ArrayList<>();
-        pageRepository.flush();
+    public List<String> getLemmaFromSearchText(String text) {
+        return lemmaEngine.getLemmaList(text);
+    }
 
-        List<PageModel> pagesList = new ArrayList<>();
-        for (int i = 0; i < textLemmaList.size(); i++) {
-            List<String> currentLemma = new ArrayList<>();
-            currentLemma.add(textLemmaList.get(i));
-            List<LemmaModel> foundLemmaList = new ArrayList<>();
-            for (SiteModel siteModel : sites) {
-                foundLemmaList.addAll(getLemmaModelFromSite(currentLemma, siteModel));
-            }
-            if (i == 0) {
-                pagesList = pageRepository.findByLemma(foundLemmaList, sites);
-            } else {
-                pagesList = pageRepository.findByLemmaFromPagesList(foundLemmaList, pagesList, sites);
+    public SearchPageDTO createSearchDTOList(List<String> textLemmaList, int start, int limit,
+                                             List<SiteModel> sites, ResultCursor after) {
+        List<String> lemmas = textLemmaList.stream().distinct().toList();
+        if (lemmas.isEmpty()) {
+            return new SearchPageDTO(new ArrayList<>(), 0, null);
+        }
+        int skip = after == null ? start : 0;
+        Set<Long> lemmaIds = new HashSet<>();
+        List<SiteIndex> siteIndexes = new ArrayList<>();
+        for (SiteModel site : sites) {
+            SiteIndex siteIndex = invertedIndex.getSite(site.getId());
+            if (siteIndex != null) {
+                siteIndexes.add(siteIndex);
             }
         }
-        indexRepository.flush();
-
-        List<IndexModel> indexesList = indexRepository.findByPageAndLemmas(lemmaList, pagesList);
-        Map<PageModel, Float> relevanceMap = getRelevanceFromPage(pagesList, indexesList);
-        List<Entry<PageModel, Float>> list = new ArrayList<>(relevanceMap.entrySet());
-        list.sort((c1, c2) -> c2.getValue().compareTo(c1.getValue()));
-        List<Entry<PageModel, Float>> listWithTreshold = new ArrayList<>(list);
-        if (list.size() > limit - start) {
-            listWithTreshold = list.subList(start, limit);
+        QueryPlan plan = planQuery(siteIndexes, lemmas);
+        if (plan.isEmpty()) {
+            return new SearchPageDTO(new ArrayList<>(), 0, null);
         }
-        relevanceMap.clear();
-        relevanceMap = listWithTreshold.stream().collect(Collectors.toConcurrentMap(Entry::getKey, Entry::getValue));
-
-        List<SearchDTO> searchDtos = getSearchDtoList((ConcurrentHashMap<PageModel, Float>) relevanceMap, textLemmaList);
-        if (start > searchDtos.size()) {
-            return new ArrayList<>();
+        TopKCollector collector = collectTopPages(siteIndexes, new MaxScoreEvaluator(plan), skip + limit, after,
+                lemmaIds);
+        log.debug(collector.totalCount() + " pages matched, " + collector.skippedCount()
+                + " skipped below top " + (skip + limit) + " threshold");
+        List<ScoredPage> topPages = collector.results();
+        if (skip >= topPages.size()) {
+            return new SearchPageDTO(new ArrayList<>(), collector.totalCount(), null);
         }
-        if (searchDtos.size() > limit) {
-            int i = start;
-            while (i < limit) {
-                result.add(searchDtos.get(i));
-                i++;
-            }
-            return result;
-        } else return searchDtos;
+        List<ScoredPage> resultPages = topPages.subList(skip, topPages.size());
+        String nextCursor = collector.eligibleCount() > topPages.size()
+                ? ResultCursor.of(resultPages.get(resultPages.size() - 1)).encode() : null;
+        List<SearchDTO> data = getSearchDtoList(resultPages, collector.maxScore(), lemmaIds, textLemmaList);
+        return new SearchPageDTO(data, collector.totalCount(), nextCursor);
     }
 
-    public String clearCodeFromTag(String text, String element) {
-        Document doc = Jsoup.parse(text);
-        Elements elements = doc.select(element);
-        String html = elements.stream().map(Element::html).collect(Collectors.joining());
-        return Jsoup.parse(html).text();
+
+    private record SiteResult(TopKCollector collector, Set<Long> lemmaIds) {
     }
 }
@@ -0,0 +1,54 @@
+package searchengine.engines;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import searchengine.index.InvertedIndex;
+import searchengine.model.SiteModel;
+import searchengine.repository.BulkWriteRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SiteGenerationPurger {
+    private final InvertedIndex invertedIndex;
+    private final BulkWriteRepository bulkWriteRepository;
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "generation-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Long> pendingSiteIds = ConcurrentHashMap.newKeySet();
+
+    public void purge(SiteModel generation) {
+        long siteId = generation.getId();
+        if (!pendingSiteIds.add(siteId)) {
+            return;
+        }
+        invertedIndex.remove(siteId);
+        purgeExecutor.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                bulkWriteRepository.purgeSite(siteId);
+                log.info("Site generation " + siteId + " of " + generation.getUrl() + " purged in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            } catch (DataAccessException e) {
+                log.error("Purge of site generation " + siteId + " of " + generation.getUrl() + " failed", e);
+            } finally {
+                pendingSiteIds.remove(siteId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purgeExecutor.shutdownNow();
+    }
+}
@@ -2,101 +2,176 @@ package searchengine.engines;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import searchengine.dto.AnalyzedPageDTO;
+import searchengine.index.InvertedIndex;
 import searchengine.lemmaindexer.LemmaIndexer;
-import searchengine.pagesearch.PageSearcher;
-import searchengine.parser.WebParser;
+import searchengine.pagesearch.PageCrawler;
+import searchengine.pagesearch.UrlNormalizer;
 import searchengine.config.Site;
 import searchengine.config.SitesList;
-import searchengine.dto.IndexDTO;
-import searchengine.dto.LemmaDTO;
 import searchengine.dto.PageDTO;
+import searchengine.dto.PageValidatorDTO;
 import searchengine.exception.CurrentInterruptedException;
-import searchengine.model.IndexModel;
+import searchengine.model.Generation;
 import searchengine.model.LemmaModel;
 import searchengine.model.PageModel;
+import searchengine.model.PageTextModel;
 import searchengine.model.SiteModel;
 import searchengine.model.Status;
+import searchengine.repository.BulkWriteRepository;
 import searchengine.repository.IndexRepository;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RequiredArgsConstructor
 @Slf4j
 public class SiteIndexingEngine implements Callable<Boolean> {
 
+    private static final PageDTO END_OF_PAGES = new PageDTO("", "", 0);
+    private static final AnalyzedPageDTO END_OF_LEMMAS = new AnalyzedPageDTO(END_OF_PAGES);
+    private static final int NOT_MODIFIED_CODE = 304;
+    private static final int ERROR_CODE = 400;
+    private static final Set<Integer> GONE_CODES = Set.of(404, 410);
+
     private final PageRepository pageRepository;
     private final SiteRepository siteRepository;
     private final LemmaRepository lemmaRepository;
     private final IndexRepository indexRepository;
+    private final BulkWriteRepository bulkWriteRepository;
     private final LemmaIndexer lemmaIndexer;
-    private final WebParser webParser;
+    private final InvertedIndex invertedIndex;
+    private final SiteGenerationPurger generationPurger;
     private final String url;
     private final SitesList sitesListConfiguration;
+    private final boolean incremental;
+    private final UrlNormalizer urlNormalizer = new UrlNormalizer();
 
 
     @Override
     public Boolean call() {
-        if (siteRepository.findByUrl(url) != null) {
-            log.info("start site data delete from ".concat(url));
-            SiteModel site = siteRepository.findByUrl(url);
-            site.setStatus(Status.INDEXING);
-            site.setName(getSiteName());
-            site.setStatusTime(new Date());
-            siteRepository.saveAndFlush(site);
-            siteRepository.delete(site);
-        }
-        log.info("Site indexing start ".concat(url).concat(" ").concat(getSiteName()) );
         SiteModelIndexing siteModelIndexing = new SiteModelIndexing();
-        SiteModel site = siteModelIndexing.getSiteModelRecord();
+        siteRepository.findByUrlAndGenerationNot(url, Generation.LIVE).forEach(generationPurger::purge);
+        SiteModel existingSite = siteRepository.findByUrlAndGeneration(url, Generation.LIVE);
+        SiteModel site;
+        if (incremental && existingSite != null) {
+            log.info("Incremental site indexing start ".concat(url).concat(" ").concat(getSiteName()));
+            site = siteModelIndexing.getIndexingSiteModelRecord(existingSite);
+        } else if (existingSite != null) {
+            log.info("Shadow site indexing start ".concat(url).concat(" ").concat(getSiteName()));
+            site = siteModelIndexing.getSiteModelRecord(Generation.SHADOW);
+        } else {
+            log.info("Site indexing start ".concat(url).concat(" ").concat(getSiteName()));
+            site = siteModelIndexing.getSiteModelRecord(Generation.LIVE);
+        }
+        AllSiteIndexing allSiteIndexing = new AllSiteIndexing(site);
+        if (incremental && existingSite != null) {
+            allSiteIndexing.loadIndexedSite();
+        }
+        int capacity = sitesListConfiguration.getPipelineQueueCapacity();
+        BlockingQueue<PageDTO> pageQueue = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<AnalyzedPageDTO> lemmaQueue = new ArrayBlockingQueue<>(capacity);
+        PageCrawler crawler = new PageCrawler(url.concat("/"), sitesListConfiguration, pageQueue,
+                allSiteIndexing::getValidator);
+        int lemmaWorkers = Math.max(1, sitesListConfiguration.getLemmatizerThreadCount());
         try {
-            if (!Thread.interrupted()) {
-                List<PageDTO> pageDtoList;
-                if (!Thread.interrupted()) {
-                    String urls = url.concat("/");
-                    List<PageDTO> pageDtosList = new CopyOnWriteArrayList<>();
-                    List<String> urlList = new CopyOnWriteArrayList<>();
-                    ForkJoinPool forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
-                    List<PageDTO> pages = forkJoinPool.invoke(new PageSearcher(urls,urlList, pageDtosList, sitesListConfiguration));
-                    log.info(pages.size() + " pages found in " + url);
-                    pageDtoList = new CopyOnWriteArrayList<>(pages);
-                } else throw new CurrentInterruptedException("Fork join exception!");
-                List<PageModel> pageList = new CopyOnWriteArrayList<>();
-                int start;
-                String pagePath;
-                for (PageDTO page : pageDtoList) {
-                    start = checkUrlWww(page, url);
-                    pagePath = page.url().substring(start);
-                    pageList.add(new PageModel(site, pagePath, page.code(), page.content()));
-                }
-                pageRepository.saveAllAndFlush(pageList);
-                log.info("All pages saved " + url);
-            } else {
+            if (Thread.interrupted()) {
                 throw new CurrentInterruptedException("Local interrupted exception.");
             }
-            new LemmaIndexing().saveLemmasInLemmaDTO();
-            log.info("All lemmas saved " + url);
-            new AllSiteIndexing().getSiteAllIndexing(site);
-        } catch (CurrentInterruptedException e) {
+            runPipeline(allSiteIndexing, crawler, pageQueue, lemmaQueue, lemmaWorkers);
+            invertedIndex.rebuild(site.getId());
+            site.setStatusTime(new Date());
+            site.setStatus(Status.INDEXED);
+            siteRepository.saveAndFlush(site);
+            if (site.getGeneration() == Generation.SHADOW) {
+                siteRepository.promoteGeneration(url, site.getId());
+                site.setGeneration(Generation.LIVE);
+                log.info("Site generation " + site.getId() + " promoted for " + url);
+                generationPurger.purge(existingSite);
+            }
+            log.info("Site indexing finished ".concat(url));
+        } catch (InterruptedException e) {
             log.error("WebParser stopped from ".concat(url).concat(". ").concat(e.getMessage()));
-            new SiteModelIndexing().getErrorSiteModelRecord(site);
-            new CurrentInterruptedException("Interrupted exception");
+            siteModelIndexing.getErrorSiteModelRecord(site, "WebParser stopped");
+        } catch (ExecutionException e) {
+            log.error("Indexing failed for ".concat(url), e.getCause());
+            siteModelIndexing.getErrorSiteModelRecord(site, String.valueOf(e.getCause().getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Indexing failed for ".concat(url), e);
+            siteModelIndexing.getErrorSiteModelRecord(site, String.valueOf(e.getMessage()));
         }
         return true;
     }
 
-    private int checkUrlWww(PageDTO page, String url) {
-        if (!page.url().contains(url)) {
-            String urlWithWww = url.replaceFirst("://","://www.");
-            return page.url().indexOf(urlWithWww) + urlWithWww.length();
+    private void runPipeline(AllSiteIndexing allSiteIndexing, PageCrawler crawler, BlockingQueue<PageDTO> pageQueue,
+                             BlockingQueue<AnalyzedPageDTO> lemmaQueue, int lemmaWorkers)
+            throws InterruptedException, ExecutionException {
+        ExecutorService stageExecutor = Executors.newFixedThreadPool(lemmaWorkers + 2);
+        CompletionService<Void> stages = new ExecutorCompletionService<>(stageExecutor);
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            LemmaIndexing lemmaIndexing = new LemmaIndexing(allSiteIndexing, lemmaWorkers);
+            futures.add(stages.submit(stage(() -> {
+                int pages = crawler.crawl(allSiteIndexing.getKnownUrls());
+                log.info(pages + " pages found in " + url);
+                pageQueue.put(END_OF_PAGES);
+            })));
+            for (int i = 0; i < lemmaWorkers; i++) {
+                futures.add(stages.submit(stage(() -> lemmaIndexing.lemmatize(pageQueue, lemmaQueue))));
+            }
+            futures.add(stages.submit(stage(() -> allSiteIndexing.persist(lemmaQueue))));
+            for (int i = 0; i < futures.size(); i++) {
+                stages.take().get();
+            }
+        } finally {
+            crawler.stop();
+            futures.forEach(future -> future.cancel(true));
+            stageExecutor.shutdownNow();
+            pageQueue.clear();
+            lemmaQueue.clear();
         }
-        return page.url().indexOf(url) + url.length();
+    }
+
+    private Callable<Void> stage(PipelineStage pipelineStage) {
+        return () -> {
+            pipelineStage.run();
+            return null;
+        };
+    }
+
+    private interface PipelineStage {
+        void run() throws Exception;
+    }
+
+    private String getStoredContent(PageDTO page) {
+        return sitesListConfiguration.isStoreHtml() ? page.content() : null;
+    }
+
+    private String getPagePath(String pageUrl) {
+        return urlNormalizer.getPath(pageUrl, url);
     }
 
     private String getSiteName() {
@@ -108,78 +183,249 @@ public class SiteIndexingEngine implements Callable<Boolean> {
     }
 
     private class SiteModelIndexing {
-        protected SiteModel getSiteModelRecord() {
+        protected SiteModel getSiteModelRecord(Generation generation) {
             SiteModel site = new SiteModel();
             site.setUrl(url);
+            site.setGeneration(generation);
+            site.setName(getSiteName());
+            site.setStatus(Status.INDEXING);
+            site.setStatusTime(new Date());
+            siteRepository.saveAndFlush(site);
+            return site;
+        }
+
+        protected SiteModel getIndexingSiteModelRecord(SiteModel site) {
             site.setName(getSiteName());
             site.setStatus(Status.INDEXING);
             site.setStatusTime(new Date());
+            site.setLastError(null);
             siteRepository.saveAndFlush(site);
             return site;
         }
 
-        protected void getErrorSiteModelRecord(SiteModel site) {
-            SiteModel sites = new SiteModel();
-            sites.setLastError("WebParser stopped");
-            sites.setStatus(Status.FAILED);
-            sites.setStatusTime(new Date());
+        protected void getErrorSiteModelRecord(SiteModel site, String error) {
+            site.setLastError(error);
+            site.setStatus(Status.FAILED);
+            site.setStatusTime(new Date());
             siteRepository.saveAndFlush(site);
         }
     }
+
     private class LemmaIndexing {
+        private final AllSiteIndexing allSiteIndexing;
+        private final AtomicInteger activeWorkers;
 
-        protected void saveLemmasInLemmaDTO() throws CurrentInterruptedException {
-            if (!Thread.interrupted()) {
-                SiteModel siteModel = siteRepository.findByUrl(url);
-                siteModel.setStatusTime(new Date());
-                lemmaIndexer.startLemmaIndexer(siteModel);
-                List<LemmaDTO> lemmaDtoList = lemmaIndexer.getLemmaDtoList();
-                List<LemmaModel> lemmaList = new CopyOnWriteArrayList<>();
-                for (LemmaDTO lemmaDto : lemmaDtoList) {
-                    lemmaList.add(new LemmaModel(lemmaDto.lemma(), lemmaDto.frequency(), siteModel));
+        protected LemmaIndexing(AllSiteIndexing allSiteIndexing, int workers) {
+            this.allSiteIndexing = allSiteIndexing;
+            this.activeWorkers = new AtomicInteger(workers);
+        }
+
+        protected void lemmatize(BlockingQueue<PageDTO> pageQueue,
+                                 BlockingQueue<AnalyzedPageDTO> lemmaQueue) throws InterruptedException {
+            while (true) {
+                PageDTO page = pageQueue.take();
+                if (page == END_OF_PAGES) {
+                    pageQueue.put(END_OF_PAGES);
+                    if (activeWorkers.decrementAndGet() == 0) {
+                        lemmaQueue.put(END_OF_LEMMAS);
+                    }
+                    return;
+                }
+                if (allSiteIndexing.isUnchanged(page)) {
+                    lemmaQueue.put(new AnalyzedPageDTO(page));
+                } else {
+                    lemmaQueue.put(lemmaIndexer.analyzePage(page));
                 }
-                lemmaRepository.saveAllAndFlush(lemmaList);
-            } else {
-                throw new CurrentInterruptedException("Invalid saveLemmasInLemmaDTO");
             }
         }
     }
 
     private class AllSiteIndexing {
-        protected void getSiteAllIndexing(SiteModel site) throws CurrentInterruptedException {
-            if (!Thread.interrupted()) {
-                webParser.startWebParser(site);
-                List<IndexDTO> indexDtoList = new CopyOnWriteArrayList<>(webParser.getIndexDTOList());
-                List<IndexModel> indexModels = new CopyOnWriteArrayList<>();
-                site.setStatusTime(new Date());
-                PageModel page;
-                LemmaModel lemma;
-                log.info(site.getUrl() + " indexList size: " + indexDtoList.size());
-                int count = 1;
-                for (IndexDTO indexDto : indexDtoList) {
-                    page = pageRepository.getById(indexDto.pageID());
-                    lemma = lemmaRepository.getById(indexDto.lemmaID());
-                    indexModels.add(new IndexModel(page, lemma, indexDto.rank()));
-                    counter(count, indexDtoList.size());
-                    count++;
+        private final SiteModel site;
+        private final Map<String, LemmaModel> lemmaDictionary = new HashMap<>();
+        private final Map<Long, LemmaModel> lemmaById = new HashMap<>();
+        private final Map<String, PageValidatorDTO> knownPages = new ConcurrentHashMap<>();
+        private final Set<Long> seenPageIds = new HashSet<>();
+        private final int batchSize = Math.max(1, sitesListConfiguration.getBatchSize());
+        private int savedPages = 0;
+
+        protected AllSiteIndexing(SiteModel site) {
+            this.site = site;
+        }
+
+        protected void loadIndexedSite() {
+            Pageable chunk = PageRequest.of(0, Math.max(1, sitesListConfiguration.getJdbcBatchSize()));
+            List<PageValidatorDTO> validators;
+            long lastPageId = 0;
+            do {
+                validators = pageRepository.findValidatorsBySite(site, lastPageId, chunk);
+                for (PageValidatorDTO validator : validators) {
+                    knownPages.put(validator.path(), validator);
+                    lastPageId = validator.id();
+                }
+            } while (validators.size() == chunk.getPageSize());
+            List<LemmaModel> lemmas;
+            long lastLemmaId = 0;
+            do {
+                lemmas = lemmaRepository.findBySiteModelId(site, lastLemmaId, chunk);
+                for (LemmaModel lemma : lemmas) {
+                    lemmaDictionary.put(lemma.getLemma(), lemma);
+                    lemmaById.put(lemma.getId(), lemma);
+                    lastLemmaId = lemma.getId();
+                }
+            } while (lemmas.size() == chunk.getPageSize());
+            log.info(knownPages.size() + " indexed pages and " + lemmaDictionary.size() + " lemmas loaded for " + url);
+        }
+
+        protected List<String> getKnownUrls() {
+            return knownPages.keySet().stream().map(url::concat).toList();
+        }
+
+        protected PageValidatorDTO getValidator(String pageUrl) {
+            return knownPages.get(getPagePath(pageUrl));
+        }
+
+        protected boolean isUnchanged(PageDTO page) {
+            return isUnchanged(page, getValidator(page.url()));
+        }
+
+        private boolean isUnchanged(PageDTO page, PageValidatorDTO validator) {
+            if (validator == null) {
+                return false;
+            }
+            if (page.code() == NOT_MODIFIED_CODE) {
+                return true;
+            }
+            if (page.code() >= ERROR_CODE) {
+                return !GONE_CODES.contains(page.code());
+            }
+            return page.contentHash() != null && page.contentHash().equals(validator.contentHash());
+        }
+
+        protected void persist(BlockingQueue<AnalyzedPageDTO> lemmaQueue) throws InterruptedException {
+            List<AnalyzedPageDTO> batch = new ArrayList<>(batchSize);
+            while (true) {
+                AnalyzedPageDTO page = lemmaQueue.take();
+                if (page == END_OF_LEMMAS) {
+                    saveBatch(batch);
+                    removeMissingPages();
+                    log.info(savedPages + " pages indexed and " + lemmaDictionary.size() + " lemmas known " + url);
+                    return;
+                }
+                batch.add(page);
+                if (batch.size() >= batchSize) {
+                    saveBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        private void saveBatch(List<AnalyzedPageDTO> batch) throws CurrentInterruptedException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CurrentInterruptedException("Invalid saveBatch");
+            }
+            List<AnalyzedPageDTO> indexedPages = new ArrayList<>(batch.size());
+            List<PageModel> pageList = new ArrayList<>(batch.size());
+            List<Long> stalePageIds = new ArrayList<>();
+            List<Long> removedPageIds = new ArrayList<>();
+            for (AnalyzedPageDTO pageLemmas : batch) {
+                PageDTO page = pageLemmas.page();
+                String pagePath = getPagePath(page.url());
+                PageValidatorDTO validator = knownPages.get(pagePath);
+                if (validator != null && !seenPageIds.add(validator.id())) {
+                    continue;
                 }
-                log.info("indexModels filled");
-                indexRepository.saveAllAndFlush(indexModels);
-                log.info("WebParser stopping ".concat(url));
-                site.setStatusTime(new Date());
-                site.setStatus(Status.INDEXED);
-                siteRepository.saveAndFlush(site);
+                if (isUnchanged(page, validator)) {
+                    updateValidators(page, validator);
+                    continue;
+                }
+                if (validator != null && page.code() >= ERROR_CODE) {
+                    removedPageIds.add(validator.id());
+                    continue;
+                }
+                PageModel pageModel = new PageModel(site, pagePath, page.code(), getStoredContent(page));
+                pageModel.setEtag(page.etag());
+                pageModel.setLastModified(page.lastModified());
+                pageModel.setContentHash(page.contentHash());
+                if (validator != null) {
+                    pageModel.setId(validator.id());
+                    stalePageIds.add(validator.id());
+                }
+                pageList.add(pageModel);
+                indexedPages.add(pageLemmas);
+            }
+            stalePageIds.addAll(removedPageIds);
+            Map<String, LemmaModel> changedLemmas = releasePostings(stalePageIds);
+            if (!removedPageIds.isEmpty()) {
+                pageRepository.deleteAllByIdInBatch(removedPageIds);
+            }
+            bulkWriteRepository.savePages(pageList);
+            savePageTexts(pageList, indexedPages);
+            LemmaIndexer.IndexBatch indexBatch = lemmaIndexer.buildIndex(pageList, indexedPages, lemmaDictionary, site);
+            indexBatch.lemmaList().forEach(lemma -> changedLemmas.put(lemma.getLemma(), lemma));
+            saveLemmas(changedLemmas.values());
+            indexBatch.forEachChunk(Math.max(1, sitesListConfiguration.getJdbcBatchSize()),
+                    bulkWriteRepository::insertIndexes);
+            savedPages += pageList.size();
+            site.setStatusTime(new Date());
+            siteRepository.saveAndFlush(site);
+        }
+
+        private void savePageTexts(List<PageModel> pageList, List<AnalyzedPageDTO> analyzedPages) {
+            List<PageTextModel> pageTexts = new ArrayList<>(pageList.size());
+            for (int i = 0; i < pageList.size(); i++) {
+                AnalyzedPageDTO analyzedPage = analyzedPages.get(i);
+                pageTexts.add(new PageTextModel(pageList.get(i).getId(), analyzedPage.title(), analyzedPage.text()));
+            }
+            bulkWriteRepository.savePageTexts(pageTexts);
+        }
 
-            } else {
-                throw new CurrentInterruptedException("Invalid getSiteAllIndexing");
+        private void updateValidators(PageDTO page, PageValidatorDTO validator) {
+            String etag = page.etag() != null ? page.etag() : validator.etag();
+            String lastModified = page.lastModified() != null ? page.lastModified() : validator.lastModified();
+            if (!Objects.equals(etag, validator.etag()) || !Objects.equals(lastModified, validator.lastModified())) {
+                pageRepository.updateValidators(validator.id(), etag, lastModified);
+            }
+        }
+
+        private Map<String, LemmaModel> releasePostings(List<Long> pageIds) {
+            Map<String, LemmaModel> changedLemmas = new HashMap<>();
+            if (pageIds.isEmpty()) {
+                return changedLemmas;
+            }
+            for (Long lemmaId : indexRepository.findLemmaIdsByPageIds(pageIds)) {
+                LemmaModel lemma = lemmaById.get(lemmaId);
+                if (lemma != null) {
+                    lemma.setFrequency(lemma.getFrequency() - 1);
+                    changedLemmas.put(lemma.getLemma(), lemma);
+                }
             }
+            indexRepository.deleteByPageIds(pageIds);
+            return changedLemmas;
         }
 
-        private void counter(int count, int size) {
-            if (count % 100 == 0) {
-                System.out.print(count + " from " + size + "\r");
+        private void removeMissingPages() {
+            List<Long> missingPageIds = knownPages.values().stream()
+                    .map(PageValidatorDTO::id)
+                    .filter(id -> !seenPageIds.contains(id))
+                    .toList();
+            for (int i = 0; i < missingPageIds.size(); i += batchSize) {
+                List<Long> chunk = missingPageIds.subList(i, Math.min(i + batchSize, missingPageIds.size()));
+                saveLemmas(releasePostings(chunk).values());
+                pageRepository.deleteAllByIdInBatch(chunk);
+            }
+            if (!knownPages.isEmpty()) {
+                lemmaRepository.deleteUnusedBySite(site);
+                log.info(missingPageIds.size() + " missing pages removed from " + url);
             }
         }
+
+        private void saveLemmas(Collection<LemmaModel> lemmaList) {
+            bulkWriteRepository.saveLemmas(lemmaList);
+            lemmaList.forEach(lemma -> lemmaById.putIfAbsent(lemma.getId(), lemma));
+        }
     }
 }
-
@@ -0,0 +1,318 @@
+package searchengine.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.dto.IndexDTO;
+import searchengine.model.Generation;
+import searchengine.model.SiteModel;
+import searchengine.repository.PostingRepository;
+import searchengine.repository.SiteRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvertedIndex {
+    private static final Pattern SEGMENT_FILE = Pattern.compile("site-(\\d+)-(\\d+)\\.seg");
+
+    private final SiteRepository siteRepository;
+    private final PostingRepository postingRepository;
+    private final SitesList config;
+    private final Map<Long, SiteIndex> sites = new ConcurrentHashMap<>();
+    private final Map<Long, Object> siteLocks = new ConcurrentHashMap<>();
+    private final List<SiteIndexListener> listeners;
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong version = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        Map<Long, List<Path>> segmentFiles = listSegmentFiles();
+        for (SiteModel site : siteRepository.findByGeneration(Generation.LIVE)) {
+            List<Path> files = segmentFiles.remove(site.getId());
+            if (files == null) {
+                rebuild(site.getId());
+                continue;
+            }
+            try {
+                List<Segment> segments = new ArrayList<>();
+                for (Path file : files) {
+                    segments.add(Segment.open(file));
+                }
+                sites.put(site.getId(), new SiteIndex(site.getId(), version.incrementAndGet(), segments));
+                log.info("Index segments for site " + site.getId() + " opened: " + segments.size());
+            } catch (IOException e) {
+                log.error("Index segments for site " + site.getId() + " are unreadable, rebuilding", e);
+                rebuild(site.getId());
+            }
+        }
+        segmentFiles.values().forEach(this::deleteFiles);
+    }
+
+    public SiteIndex getSite(long siteId) {
+        return sites.get(siteId);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public long version(long siteId) {
+        SiteIndex siteIndex = sites.get(siteId);
+        return siteIndex == null ? 0 : siteIndex.version();
+    }
+
+    public void rebuild(long siteId) {
+        long start = System.currentTimeMillis();
+        SiteIndex previous = sites.get(siteId);
+        int[][] pages = {new int[1024], new int[1024]};
+        int[] pageCount = {0};
+        postingRepository.streamSitePageLengths(siteId, (pageId, rankSum) -> {
+            if (pageCount[0] == pages[0].length) {
+                pages[0] = Arrays.copyOf(pages[0], pageCount[0] * 2);
+                pages[1] = Arrays.copyOf(pages[1], pageCount[0] * 2);
+            }
+            pages[0][pageCount[0]] = toPageId(pageId);
+            pages[1][pageCount[0]++] = toPageLength(rankSum);
+        });
+        Path file = newSegmentFile(siteId);
+        try (SegmentWriter writer = new SegmentWriter(file)) {
+            PostingListStream postingLists = new PostingListStream(writer);
+            postingRepository.streamSitePostings(siteId, postingLists);
+            postingLists.flush();
+            writer.finish(siteId, pages[0], pages[1], pageCount[0], new int[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Index segment write failed for site " + siteId, e);
+        }
+        replaceSegments(siteId, previous, openSegment(file));
+        log.info("Index segment for site " + siteId + " written: " + pageCount[0] + " pages in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public void updatePage(long siteId, long pageId, Map<String, IndexDTO> postings) {
+        if (sites.get(siteId) == null) {
+            rebuild(siteId);
+            return;
+        }
+        int page = toPageId(pageId);
+        Path file = newSegmentFile(siteId);
+        try (SegmentWriter writer = new SegmentWriter(file)) {
+            float pageLength = 0;
+            for (Map.Entry<String, IndexDTO> posting : new TreeMap<>(postings).entrySet()) {
+                PostingListBuilder builder = new PostingListBuilder(posting.getValue().lemmaID());
+                builder.add(page, posting.getValue().rank());
+                writer.addPostingList(posting.getKey(), builder.build());
+                pageLength += posting.getValue().rank();
+            }
+            int pageCount = postings.isEmpty() ? 0 : 1;
+            writer.finish(siteId, new int[]{page}, new int[]{toPageLength(pageLength)}, pageCount, new int[]{page});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Index segment write failed for site " + siteId, e);
+        }
+        Segment segment = openSegment(file);
+        int segmentCount;
+        synchronized (siteLock(siteId)) {
+            SiteIndex siteIndex = sites.get(siteId);
+            if (siteIndex == null) {
+                segmentCount = 0;
+            } else {
+                List<Segment> segments = new ArrayList<>(siteIndex.segments());
+                segments.add(segment);
+                putSite(new SiteIndex(siteId, version.incrementAndGet(), segments));
+                segmentCount = segments.size();
+            }
+        }
+        if (segmentCount == 0) {
+            deleteFiles(List.of(file));
+            rebuild(siteId);
+        } else if (segmentCount > Math.max(1, config.getMaxIndexSegments())) {
+            merge(siteId);
+        }
+    }
+
+    public void remove(long siteId) {
+        SiteIndex siteIndex;
+        synchronized (siteLock(siteId)) {
+            siteIndex = sites.remove(siteId);
+            version.incrementAndGet();
+            notifyListeners(siteId);
+        }
+        if (siteIndex != null) {
+            deleteFiles(siteIndex.segments().stream().map(Segment::path).toList());
+        }
+        List<Path> files = listSegmentFiles().get(siteId);
+        if (files != null) {
+            deleteFiles(files);
+        }
+    }
+
+    private static int toPageId(long pageId) {
+        if (pageId < 0 || pageId > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Page id " + pageId + " does not fit the index segment format");
+        }
+        return (int) pageId;
+    }
+
+    private static int toPageLength(float rankSum) {
+        return Math.max(1, Math.round(rankSum));
+    }
+
+    private void merge(long siteId) {
+        long start = System.currentTimeMillis();
+        SiteIndex siteIndex = sites.get(siteId);
+        if (siteIndex == null) {
+            return;
+        }
+        Path file = newSegmentFile(siteId);
+        try {
+            SegmentMerger.merge(siteIndex, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Index segment merge failed for site " + siteId, e);
+        }
+        replaceSegments(siteId, siteIndex, openSegment(file));
+        log.info(siteIndex.segments().size() + " index segments of site " + siteId + " merged in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Swaps {@code replacement} in for the segments of {@code previous}. Segments added by page updates
+     * while the replacement was being written stay on top of it, so only the swap holds the site lock.
+     */
+    private void replaceSegments(long siteId, SiteIndex previous, Segment replacement) {
+        List<Segment> replaced = previous == null ? List.of() : previous.segments();
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (siteLock(siteId)) {
+            List<Segment> segments = new ArrayList<>();
+            segments.add(replacement);
+            SiteIndex current = sites.get(siteId);
+            if (current != null) {
+                for (Segment segment : current.segments()) {
+                    if (replaced.contains(segment)) {
+                        obsolete.add(segment.path());
+                    } else {
+                        segments.add(segment);
+                    }
+                }
+            }
+            putSite(new SiteIndex(siteId, version.incrementAndGet(), segments));
+        }
+        deleteFiles(obsolete);
+    }
+
+    private Object siteLock(long siteId) {
+        return siteLocks.computeIfAbsent(siteId, key -> new Object());
+    }
+
+    private void putSite(SiteIndex siteIndex) {
+        sites.put(siteIndex.siteId(), siteIndex);
+        notifyListeners(siteIndex.siteId());
+    }
+
+    private void notifyListeners(long siteId) {
+        listeners.forEach(listener -> listener.onSiteIndexChanged(siteId));
+    }
+
+    private Segment openSegment(Path file) {
+        try {
+            return Segment.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Index segment open failed: " + file, e);
+        }
+    }
+
+    private Path newSegmentFile(long siteId) {
+        Path directory = Paths.get(config.getIndexPath());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Index directory is not writable: " + directory, e);
+        }
+        return directory.resolve("site-" + siteId + "-" + sequence.incrementAndGet() + ".seg");
+    }
+
+    private Map<Long, List<Path>> listSegmentFiles() {
+        Map<Long, List<Path>> segmentFiles = new HashMap<>();
+        Path directory = Paths.get(config.getIndexPath());
+        if (!Files.isDirectory(directory)) {
+            return segmentFiles;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segmentFiles.computeIfAbsent(Long.parseLong(matcher.group(1)), key -> new ArrayList<>()).add(file);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Index directory is not readable: " + directory, e);
+        }
+        segmentFiles.values().forEach(files -> files.sort(Comparator.comparingLong(this::getSequence)));
+        return segmentFiles;
+    }
+
+    private long getSequence(Path file) {
+        Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not an index segment file: " + file);
+        }
+        long fileSequence = Long.parseLong(matcher.group(2));
+        sequence.accumulateAndGet(fileSequence, Math::max);
+        return fileSequence;
+    }
+
+    private void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Index segment " + file + " could not be deleted", e);
+            }
+        }
+    }
+
+    private static final class PostingListStream implements PostingRepository.PostingConsumer {
+        private final SegmentWriter writer;
+        private String lemma;
+        private PostingListBuilder builder;
+
+        private PostingListStream(SegmentWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(String lemma, long lemmaId, long pageId, float rank) {
+            if (!lemma.equals(this.lemma)) {
+                flush();
+                this.lemma = lemma;
+                this.builder = new PostingListBuilder(lemmaId);
+            }
+            builder.add(toPageId(pageId), rank);
+        }
+
+        private void flush() {
+            if (builder == null || builder.isEmpty()) {
+                return;
+            }
+            try {
+                writer.addPostingList(lemma, builder.build());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Index segment write failed for lemma " + lemma, e);
+            }
+            builder = null;
+        }
+    }
+}
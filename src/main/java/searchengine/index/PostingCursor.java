@@ -0,0 +1,101 @@
+package searchengine.index;
+
+public class PostingCursor {
+    public static final int NO_MORE_PAGES = Integer.MAX_VALUE;
+
+    private final PostingList postingList;
+    private int index = -1;
+    private int pageId = -1;
+    private int dataPosition;
+
+    PostingCursor(PostingList postingList) {
+        this.postingList = postingList;
+    }
+
+    public boolean next() {
+        index++;
+        if (index >= postingList.size()) {
+            index = postingList.size();
+            pageId = NO_MORE_PAGES;
+            return false;
+        }
+        if (index % PostingList.BLOCK_SIZE == 0) {
+            enterBlock(index / PostingList.BLOCK_SIZE);
+        } else {
+            pageId += readVarInt();
+        }
+        return true;
+    }
+
+    public boolean advance(int target) {
+        if (pageId >= target) {
+            return pageId != NO_MORE_PAGES;
+        }
+        if (postingList.size() == 0) {
+            pageId = NO_MORE_PAGES;
+            return false;
+        }
+        int block = Math.max(0, index / PostingList.BLOCK_SIZE);
+        int lastBlock = findBlock(block, target);
+        if (lastBlock > block || index < 0) {
+            index = lastBlock * PostingList.BLOCK_SIZE;
+            enterBlock(lastBlock);
+        }
+        while (pageId < target) {
+            if (!next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int pageId() {
+        return pageId;
+    }
+
+    public float rank() {
+        return postingList.rank(index);
+    }
+
+    public PostingList postingList() {
+        return postingList;
+    }
+
+    private int findBlock(int fromBlock, int target) {
+        int low = fromBlock;
+        int step = 1;
+        int high = low + step;
+        while (high < postingList.blockCount() && postingList.blockFirstPageId(high) <= target) {
+            low = high;
+            step <<= 1;
+            high = low + step;
+        }
+        high = Math.min(high, postingList.blockCount());
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (postingList.blockFirstPageId(middle) <= target) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void enterBlock(int block) {
+        pageId = postingList.blockFirstPageId(block);
+        dataPosition = postingList.blockDataOffset(block);
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = postingList.byteAt(dataPosition++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,106 @@
+package searchengine.index;
+
+import java.nio.ByteBuffer;
+
+public final class PostingList {
+    static final int BLOCK_SIZE = 128;
+    static final int HEADER_BYTES = 12;
+    static final int SKIP_ENTRY_BYTES = 8;
+
+    private final long lemmaId;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final float maxRank;
+    private final int blockCount;
+
+    public PostingList(long lemmaId, ByteBuffer buffer) {
+        this.lemmaId = lemmaId;
+        this.buffer = buffer;
+        this.size = buffer.getInt(0);
+        this.maxRank = buffer.getFloat(4);
+        this.blockCount = buffer.getInt(8);
+    }
+
+    public static PostingList encode(long lemmaId, int[] pageIds, float[] ranks, int size) {
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        byte[] data = new byte[size * 5];
+        int[] offsets = new int[blocks];
+        int dataLength = 0;
+        float maxRank = 0;
+        for (int i = 0; i < size; i++) {
+            maxRank = Math.max(maxRank, ranks[i]);
+            if (i % BLOCK_SIZE == 0) {
+                offsets[i / BLOCK_SIZE] = dataLength;
+            } else {
+                dataLength = writeVarInt(data, dataLength, pageIds[i] - pageIds[i - 1]);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + blocks * SKIP_ENTRY_BYTES + size * 4 + dataLength);
+        buffer.putInt(size).putFloat(maxRank).putInt(blocks);
+        for (int block = 0; block < blocks; block++) {
+            buffer.putInt(pageIds[block * BLOCK_SIZE]).putInt(offsets[block]);
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(ranks[i]);
+        }
+        buffer.put(data, 0, dataLength);
+        return new PostingList(lemmaId, buffer.clear());
+    }
+
+    public long lemmaId() {
+        return lemmaId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float maxRank() {
+        return maxRank;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer.duplicate();
+    }
+
+    public PostingCursor cursor() {
+        return new PostingCursor(this);
+    }
+
+    int blockCount() {
+        return blockCount;
+    }
+
+    int blockFirstPageId(int block) {
+        return buffer.getInt(HEADER_BYTES + block * SKIP_ENTRY_BYTES);
+    }
+
+    int blockDataOffset(int block) {
+        return dataStart() + buffer.getInt(HEADER_BYTES + block * SKIP_ENTRY_BYTES + 4);
+    }
+
+    float rank(int index) {
+        return buffer.getFloat(ranksStart() + index * 4);
+    }
+
+    byte byteAt(int position) {
+        return buffer.get(position);
+    }
+
+    private int ranksStart() {
+        return HEADER_BYTES + blockCount * SKIP_ENTRY_BYTES;
+    }
+
+    private int dataStart() {
+        return ranksStart() + size * 4;
+    }
+
+    private static int writeVarInt(byte[] data, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.index;
+
+import java.util.Arrays;
+
+public class PostingListBuilder {
+    private final long lemmaId;
+    private long[] postings = new long[8];
+    private int size;
+
+    public PostingListBuilder(long lemmaId) {
+        this.lemmaId = lemmaId;
+    }
+
+    public void add(int pageId, float rank) {
+        if (size == postings.length) {
+            postings = Arrays.copyOf(postings, size * 2);
+        }
+        postings[size++] = (long) pageId << 32 | (Float.floatToIntBits(rank) & 0xFFFFFFFFL);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public PostingList build() {
+        Arrays.sort(postings, 0, size);
+        int[] pageIds = new int[size];
+        float[] ranks = new float[size];
+        for (int i = 0; i < size; i++) {
+            pageIds[i] = (int) (postings[i] >>> 32);
+            ranks[i] = Float.intBitsToFloat((int) postings[i]);
+        }
+        return PostingList.encode(lemmaId, pageIds, ranks, size);
+    }
+}
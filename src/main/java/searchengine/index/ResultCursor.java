@@ -0,0 +1,30 @@
+package searchengine.index;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+public record ResultCursor(float score, long siteId, long pageId) {
+    private static final int ENCODED_LENGTH = Float.BYTES + 2 * Long.BYTES;
+
+    public static ResultCursor of(ScoredPage page) {
+        return new ResultCursor(page.score(), page.siteId(), page.pageId());
+    }
+
+    public static ResultCursor decode(String value) {
+        byte[] bytes = Base64.getUrlDecoder().decode(value);
+        if (bytes.length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Malformed result cursor " + value);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new ResultCursor(buffer.getFloat(), buffer.getLong(), buffer.getLong());
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_LENGTH).putFloat(score).putLong(siteId).putLong(pageId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public boolean precedes(ScoredPage page) {
+        return ScoredPage.RANKING.compare(new ScoredPage(siteId, pageId, score), page) < 0;
+    }
+}
@@ -0,0 +1,9 @@
+package searchengine.index;
+
+import java.util.Comparator;
+
+public record ScoredPage(long siteId, long pageId, float score) {
+    public static final Comparator<ScoredPage> RANKING = Comparator.comparing(ScoredPage::score).reversed()
+            .thenComparingLong(ScoredPage::siteId)
+            .thenComparingLong(ScoredPage::pageId);
+}
@@ -0,0 +1,193 @@
+package searchengine.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class Segment {
+    static final int MAGIC = 0x53454758;
+    static final int VERSION = 2;
+    static final int PAGE_ENTRY_BYTES = 8;
+    private static final int FOOTER_BYTES = 52;
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+    private static final int CHUNK_OVERLAP = Long.BYTES;
+
+    private final Path path;
+    private final ByteBuffer[] chunks;
+    private final long siteId;
+    private final int lemmaCount;
+    private final int pageCount;
+    private final long pagesOffset;
+    private final long dictionaryOffset;
+    private final int[] deletedPageIds;
+
+    private Segment(Path path, ByteBuffer[] chunks, long size) throws IOException {
+        this.path = path;
+        this.chunks = chunks;
+        long footer = size - FOOTER_BYTES;
+        if (footer < 0 || getInt(footer + 48) != MAGIC || getInt(footer + 44) != VERSION) {
+            throw new IOException("Not an index segment: " + path);
+        }
+        this.siteId = getLong(footer);
+        this.lemmaCount = getInt(footer + 8);
+        this.pageCount = getInt(footer + 12);
+        int deletedCount = getInt(footer + 16);
+        this.pagesOffset = getLong(footer + 20);
+        long deletedOffset = getLong(footer + 28);
+        this.dictionaryOffset = getLong(footer + 36);
+        this.deletedPageIds = new int[deletedCount];
+        for (int i = 0; i < deletedCount; i++) {
+            deletedPageIds[i] = getInt(deletedOffset + i * 4L);
+        }
+    }
+
+    /**
+     * Maps the file in 1 GB chunks that overlap by a few bytes, so any
+     * primitive read fits into a single chunk and segments are not limited
+     * to the 2 GB a single mapping can address.
+     */
+    public static Segment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer[] chunks = new ByteBuffer[(int) Math.max(1, (size + CHUNK_BYTES - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long length = Math.min(size - start, CHUNK_BYTES + CHUNK_OVERLAP);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            return new Segment(path, chunks, size);
+        }
+    }
+
+    public PostingList getPostingList(String lemma) {
+        byte[] key = lemma.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = lemmaCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compare = compareLemma(entryOffset(middle), key);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return postingListAt(middle);
+            }
+        }
+        return null;
+    }
+
+    public String lemmaAt(int index) {
+        long entry = entryOffset(index);
+        byte[] bytes = new byte[getInt(entry)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = getByte(entry + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public PostingList postingListAt(int index) {
+        long entry = entryOffset(index);
+        long lemmaEnd = entry + 4 + getInt(entry);
+        long lemmaId = getLong(lemmaEnd);
+        long offset = getLong(lemmaEnd + 8);
+        int length = getInt(lemmaEnd + 16);
+        return new PostingList(lemmaId, slice(offset, length));
+    }
+
+    public int pageLength(int pageId) {
+        int index = indexOfPage(pageId);
+        return index < 0 ? 0 : pageLengthAt(index);
+    }
+
+    private int indexOfPage(int pageId) {
+        int low = 0;
+        int high = pageCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = pageIdAt(middle);
+            if (current < pageId) {
+                low = middle + 1;
+            } else if (current > pageId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    public int pageIdAt(int index) {
+        return getInt(pagesOffset + (long) index * PAGE_ENTRY_BYTES);
+    }
+
+    public int pageLengthAt(int index) {
+        return getInt(pagesOffset + (long) index * PAGE_ENTRY_BYTES + 4);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long siteId() {
+        return siteId;
+    }
+
+    public int lemmaCount() {
+        return lemmaCount;
+    }
+
+    public int pageCount() {
+        return pageCount;
+    }
+
+    public int[] deletedPageIds() {
+        return deletedPageIds;
+    }
+
+    private long entryOffset(int index) {
+        return getLong(dictionaryOffset + index * 8L);
+    }
+
+    private int compareLemma(long entry, byte[] key) {
+        int length = getInt(entry);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int compare = Byte.compareUnsigned(getByte(entry + 4 + i), key[i]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private byte getByte(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].get((int) (position & (CHUNK_BYTES - 1)));
+    }
+
+    private int getInt(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getInt((int) (position & (CHUNK_BYTES - 1)));
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & (CHUNK_BYTES - 1)));
+    }
+
+    private ByteBuffer slice(long position, int length) {
+        ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)];
+        int offset = (int) (position & (CHUNK_BYTES - 1));
+        if (offset + length <= chunk.capacity()) {
+            return chunk.slice(offset, length);
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        for (int i = 0; i < length; i++) {
+            copy.put(getByte(position + i));
+        }
+        return copy.flip();
+    }
+}
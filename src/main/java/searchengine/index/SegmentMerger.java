@@ -0,0 +1,84 @@
+package searchengine.index;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public final class SegmentMerger {
+
+    private SegmentMerger() {
+    }
+
+    public static void merge(SiteIndex siteIndex, Path file) throws IOException {
+        List<Segment> segments = siteIndex.segments();
+        int[] pageIds = new int[siteIndex.pageCount()];
+        int[] pageLengths = new int[siteIndex.pageCount()];
+        long[] pages = new long[siteIndex.pageCount()];
+        int pageCount = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            for (int page = 0; page < segment.pageCount(); page++) {
+                int pageId = segment.pageIdAt(page);
+                if (siteIndex.isLive(i, pageId)) {
+                    pages[pageCount++] = (long) pageId << 32 | (segment.pageLengthAt(page) & 0xFFFFFFFFL);
+                }
+            }
+        }
+        Arrays.sort(pages, 0, pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pageIds[i] = (int) (pages[i] >>> 32);
+            pageLengths[i] = (int) pages[i];
+        }
+        try (SegmentWriter writer = new SegmentWriter(file)) {
+            int[] heads = new int[segments.size()];
+            while (true) {
+                String lemma = null;
+                for (int i = 0; i < segments.size(); i++) {
+                    if (heads[i] < segments.get(i).lemmaCount()) {
+                        String candidate = segments.get(i).lemmaAt(heads[i]);
+                        if (lemma == null || candidate.compareTo(lemma) < 0) {
+                            lemma = candidate;
+                        }
+                    }
+                }
+                if (lemma == null) {
+                    break;
+                }
+                PostingList merged = mergeLemma(siteIndex, lemma, heads);
+                if (merged != null) {
+                    writer.addPostingList(lemma, merged);
+                }
+            }
+            writer.finish(siteIndex.siteId(), pageIds, pageLengths, pageCount, new int[0]);
+        }
+    }
+
+    private static PostingList mergeLemma(SiteIndex siteIndex, String lemma, int[] heads) {
+        List<Segment> segments = siteIndex.segments();
+        PostingListBuilder builder = null;
+        long lemmaId = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (heads[i] >= segment.lemmaCount() || !segment.lemmaAt(heads[i]).equals(lemma)) {
+                continue;
+            }
+            PostingList postingList = segment.postingListAt(heads[i]++);
+            PostingCursor cursor = postingList.cursor();
+            while (cursor.next()) {
+                if (siteIndex.isLive(i, cursor.pageId())) {
+                    if (builder == null) {
+                        builder = new PostingListBuilder(postingList.lemmaId());
+                    }
+                    builder.add(cursor.pageId(), cursor.rank());
+                    lemmaId = postingList.lemmaId();
+                }
+            }
+        }
+        if (builder == null) {
+            return null;
+        }
+        PostingList merged = builder.build();
+        return merged.lemmaId() == lemmaId ? merged : new PostingList(lemmaId, merged.buffer());
+    }
+}
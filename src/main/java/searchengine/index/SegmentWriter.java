@@ -0,0 +1,89 @@
+package searchengine.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SegmentWriter implements AutoCloseable {
+    private final Path file;
+    private final Path tempFile;
+    private final DataOutputStream output;
+    private final List<DictionaryEntry> dictionary = new ArrayList<>();
+    private String lastLemma;
+    private long position;
+
+    public SegmentWriter(Path file) throws IOException {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16));
+    }
+
+    public void addPostingList(String lemma, PostingList postingList) throws IOException {
+        if (lastLemma != null && lastLemma.compareTo(lemma) >= 0) {
+            throw new IllegalArgumentException("Lemmas must be added in ascending order: " + lemma);
+        }
+        ByteBuffer buffer = postingList.buffer();
+        int length = buffer.remaining();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        output.write(bytes);
+        dictionary.add(new DictionaryEntry(lemma.getBytes(StandardCharsets.UTF_8), postingList.lemmaId(), position, length));
+        position += length;
+        lastLemma = lemma;
+    }
+
+    public void finish(long siteId, int[] pageIds, int[] pageLengths, int pageCount, int[] deletedPageIds)
+            throws IOException {
+        long pagesOffset = position;
+        for (int i = 0; i < pageCount; i++) {
+            output.writeInt(pageIds[i]);
+            output.writeInt(pageLengths[i]);
+        }
+        position += (long) pageCount * Segment.PAGE_ENTRY_BYTES;
+        long deletedOffset = position;
+        for (int pageId : deletedPageIds) {
+            output.writeInt(pageId);
+        }
+        position += (long) deletedPageIds.length * 4;
+        long dictionaryOffset = position;
+        long entryOffset = dictionaryOffset + (long) dictionary.size() * 8;
+        for (DictionaryEntry entry : dictionary) {
+            output.writeLong(entryOffset);
+            entryOffset += 4 + entry.lemma().length + 20;
+        }
+        for (DictionaryEntry entry : dictionary) {
+            output.writeInt(entry.lemma().length);
+            output.write(entry.lemma());
+            output.writeLong(entry.lemmaId());
+            output.writeLong(entry.offset());
+            output.writeInt(entry.length());
+        }
+        output.writeLong(siteId);
+        output.writeInt(dictionary.size());
+        output.writeInt(pageCount);
+        output.writeInt(deletedPageIds.length);
+        output.writeLong(pagesOffset);
+        output.writeLong(deletedOffset);
+        output.writeLong(dictionaryOffset);
+        output.writeInt(Segment.VERSION);
+        output.writeInt(Segment.MAGIC);
+        output.close();
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+        Files.deleteIfExists(tempFile);
+    }
+
+    private record DictionaryEntry(byte[] lemma, long lemmaId, long offset, int length) {
+    }
+}
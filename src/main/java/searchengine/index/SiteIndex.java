@@ -0,0 +1,100 @@
+package searchengine.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class SiteIndex {
+    private final long siteId;
+    private final long version;
+    private final List<Segment> segments;
+    private final int[][] supersededPageIds;
+    private final int pageCount;
+    private final long totalPageLength;
+
+    public SiteIndex(long siteId, long version, List<Segment> segments) {
+        this.siteId = siteId;
+        this.version = version;
+        this.segments = List.copyOf(segments);
+        this.supersededPageIds = new int[segments.size()][];
+        int[] superseded = new int[0];
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            supersededPageIds[i] = superseded;
+            if (i > 0) {
+                Segment segment = segments.get(i);
+                int[] newer = Arrays.copyOf(superseded, superseded.length + segment.pageCount()
+                        + segment.deletedPageIds().length);
+                int size = superseded.length;
+                for (int page = 0; page < segment.pageCount(); page++) {
+                    newer[size++] = segment.pageIdAt(page);
+                }
+                for (int pageId : segment.deletedPageIds()) {
+                    newer[size++] = pageId;
+                }
+                superseded = sortedDistinct(newer);
+            }
+        }
+        int livePages = 0;
+        long livePageLength = 0;
+        for (int i = 0; i < this.segments.size(); i++) {
+            Segment segment = this.segments.get(i);
+            for (int page = 0; page < segment.pageCount(); page++) {
+                if (isLive(i, segment.pageIdAt(page))) {
+                    livePages++;
+                    livePageLength += segment.pageLengthAt(page);
+                }
+            }
+        }
+        this.pageCount = livePages;
+        this.totalPageLength = livePageLength;
+    }
+
+    public long siteId() {
+        return siteId;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int pageCount() {
+        return pageCount;
+    }
+
+    public long totalPageLength() {
+        return totalPageLength;
+    }
+
+    public int documentFrequency(String lemma) {
+        int frequency = 0;
+        for (Segment segment : segments) {
+            PostingList postingList = segment.getPostingList(lemma);
+            if (postingList != null) {
+                frequency += postingList.size();
+            }
+        }
+        return Math.min(frequency, pageCount);
+    }
+
+    public int pageLength(int segmentIndex, int pageId) {
+        return segments.get(segmentIndex).pageLength(pageId);
+    }
+
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    public boolean isLive(int segmentIndex, int pageId) {
+        return Arrays.binarySearch(supersededPageIds[segmentIndex], pageId) < 0;
+    }
+
+    private static int[] sortedDistinct(int[] pageIds) {
+        Arrays.sort(pageIds);
+        int size = 0;
+        for (int i = 0; i < pageIds.length; i++) {
+            if (size == 0 || pageIds[size - 1] != pageIds[i]) {
+                pageIds[size++] = pageIds[i];
+            }
+        }
+        return Arrays.copyOf(pageIds, size);
+    }
+}
@@ -0,0 +1,5 @@
+package searchengine.index;
+
+public interface SiteIndexListener {
+    void onSiteIndexChanged(long siteId);
+}
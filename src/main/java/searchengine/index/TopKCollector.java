@@ -0,0 +1,100 @@
+package searchengine.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class TopKCollector {
+    private final int capacity;
+    private final ResultCursor after;
+    private final PriorityQueue<ScoredPage> heap;
+    private int totalCount;
+    private int eligibleCount;
+    private int skippedCount;
+    private float maxScore;
+
+    public TopKCollector(int capacity, ResultCursor after) {
+        this.capacity = capacity;
+        this.after = after;
+        this.heap = new PriorityQueue<>(capacity + 1, ScoredPage.RANKING.reversed());
+    }
+
+    public static TopKCollector merge(List<TopKCollector> collectors, int capacity, ResultCursor after) {
+        TopKCollector merged = new TopKCollector(capacity, after);
+        List<List<ScoredPage>> lists = new ArrayList<>(collectors.size());
+        for (TopKCollector collector : collectors) {
+            lists.add(collector.results());
+            merged.totalCount += collector.totalCount;
+            merged.eligibleCount += collector.eligibleCount;
+            merged.skippedCount += collector.skippedCount;
+            merged.maxScore = Math.max(merged.maxScore, collector.maxScore);
+        }
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, lists.size()), (first, second) ->
+                ScoredPage.RANKING.compare(lists.get(first[0]).get(first[1]), lists.get(second[0]).get(second[1])));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        while (!heads.isEmpty() && merged.heap.size() < capacity) {
+            int[] head = heads.poll();
+            List<ScoredPage> list = lists.get(head[0]);
+            merged.heap.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    public void offer(ScoredPage page) {
+        totalCount++;
+        maxScore = Math.max(maxScore, page.score());
+        if (after != null && !after.precedes(page)) {
+            return;
+        }
+        eligibleCount++;
+        if (heap.size() < capacity) {
+            heap.add(page);
+        } else if (capacity > 0 && ScoredPage.RANKING.compare(page, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(page);
+        }
+    }
+
+    /**
+     * Counts a confirmed match whose score bound is below {@link #threshold()}. Such a page ranks after
+     * every collected page, so it is also after the cursor.
+     */
+    public void skip() {
+        totalCount++;
+        eligibleCount++;
+        skippedCount++;
+    }
+
+    public float threshold() {
+        return heap.size() < capacity ? Float.NEGATIVE_INFINITY : heap.peek().score();
+    }
+
+    public List<ScoredPage> results() {
+        List<ScoredPage> results = new ArrayList<>(heap);
+        results.sort(ScoredPage.RANKING);
+        return results;
+    }
+
+    public int totalCount() {
+        return totalCount;
+    }
+
+    public int eligibleCount() {
+        return eligibleCount;
+    }
+
+    public int skippedCount() {
+        return skippedCount;
+    }
+
+    public float maxScore() {
+        return maxScore;
+    }
+}
@@ -1,69 +1,82 @@
 package searchengine.lemmaindexer;
 
-import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.springframework.stereotype.Component;
-import searchengine.dto.LemmaDTO;
-import searchengine.engines.LemmaEngine;
+import searchengine.analyzer.PageAnalyzer;
+import searchengine.analyzer.PositionCodec;
+import searchengine.dto.AnalyzedPageDTO;
+import searchengine.dto.IndexDTO;
+import searchengine.dto.PageDTO;
+import searchengine.model.LemmaModel;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
-import searchengine.repository.PageRepository;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
-@Getter
 public class LemmaIndexer {
-    private final PageRepository pageRepository;
-    private final LemmaEngine lemmaEngine;
-    private List<LemmaDTO> lemmaDtoList;
+    private static final float BODY_TO_TITLE_WEIGHT_COEFFICIENT = 0.8f;
+    private static final int ERROR_CODE = 400;
+    private final PageAnalyzer pageAnalyzer;
 
-    public void startLemmaIndexer(SiteModel siteModel) {
-        lemmaDtoList = new CopyOnWriteArrayList<>();
-        Iterable<PageModel> pageList = pageRepository.findBySiteId(siteModel);
+    public AnalyzedPageDTO analyzePage(PageDTO page) {
+        return pageAnalyzer.analyze(page);
+    }
 
-        Map<String, Integer> lemmaList = new TreeMap<>();
-        Map<String, Integer> titleSiteList;
-        Map<String, Integer> bodySiteList;
-        Set<String> allWordsInIndexingSite = new HashSet<>();
-        String content;
-        String title;
-        String body;
-        int counter = 0;
-        for (PageModel page : pageList) {
-            content = page.getContent();
-            title = clearCodeFromTag(content, "title");
-            body = clearCodeFromTag(content, "body");
-            titleSiteList = lemmaEngine.getLemmaMap(title);
-            bodySiteList = lemmaEngine.getLemmaMap(body);
-            allWordsInIndexingSite.addAll(titleSiteList.keySet());
-            allWordsInIndexingSite.addAll(bodySiteList.keySet());
-            allWordsInIndexingSite.forEach(word -> {
-                int frequency = lemmaList.getOrDefault(word, 0) + 1;
-                lemmaList.put(word, frequency);
-            });
-            System.out.print("Pages " + siteModel.getUrl() + " checked: " + ++counter + "\r");
-        }
-        for (String lemma : lemmaList.keySet()) {
-            Integer frequency = lemmaList.get(lemma);
-            lemmaDtoList.add(new LemmaDTO(lemma, frequency));
+    public IndexBatch buildIndex(List<PageModel> pageList, List<AnalyzedPageDTO> analyzedPages,
+                                 Map<String, LemmaModel> lemmaDictionary, SiteModel siteModel) {
+        Map<String, LemmaModel> batchLemmas = new HashMap<>();
+        List<Posting> postingList = new ArrayList<>();
+        for (int i = 0; i < pageList.size(); i++) {
+            PageModel page = pageList.get(i);
+            if (page.getCode() >= ERROR_CODE) {
+                continue;
+            }
+            AnalyzedPageDTO analyzedPage = analyzedPages.get(i);
+            for (Map.Entry<String, Float> rank : getPageRanks(analyzedPage).entrySet()) {
+                LemmaModel lemma = lemmaDictionary.computeIfAbsent(rank.getKey(), word -> new LemmaModel(word, 0, siteModel));
+                lemma.setFrequency(lemma.getFrequency() + 1);
+                batchLemmas.put(rank.getKey(), lemma);
+                postingList.add(new Posting(page, lemma, rank.getValue(), getPositions(analyzedPage, rank.getKey())));
+            }
         }
-        log.info(lemmaDtoList.size() + " lemmas found in " + siteModel.getUrl());
+        log.debug(batchLemmas.size() + " lemmas and " + postingList.size() + " postings built for " + siteModel.getUrl());
+        return new IndexBatch(new ArrayList<>(batchLemmas.values()), postingList);
+    }
+
+    public Map<String, Float> getPageRanks(AnalyzedPageDTO page) {
+        Map<String, Float> ranks = new HashMap<>(page.titleLemmas().size() + page.bodyLemmas().size());
+        page.titleLemmas().forEach((lemma, count) -> ranks.merge(lemma, (float) count, Float::sum));
+        page.bodyLemmas().forEach((lemma, count) -> ranks.merge(lemma, count * BODY_TO_TITLE_WEIGHT_COEFFICIENT, Float::sum));
+        return ranks;
+    }
+
+    public String getPositions(AnalyzedPageDTO page, String lemma) {
+        return PositionCodec.encode(page.lemmaPositions().getOrDefault(lemma, List.of()));
+    }
+
+    public record Posting(PageModel page, LemmaModel lemma, float rank, String positions) {
     }
 
-    public String clearCodeFromTag(String content, String tag) {
-        Document doc = Jsoup.parse(content);
-        Elements elements = doc.select(tag);
-        String html = elements.stream().map(Element::html).collect(Collectors.joining());
-        return Jsoup.parse(html).text();
+    public record IndexBatch(List<LemmaModel> lemmaList, List<Posting> postingList) {
+
+        public void forEachChunk(int chunkSize, Consumer<List<IndexDTO>> consumer) {
+            List<IndexDTO> chunk = new ArrayList<>(Math.min(chunkSize, postingList.size()));
+            for (Posting posting : postingList) {
+                chunk.add(new IndexDTO(posting.page().getId(), posting.lemma().getId(), posting.rank(),
+                        posting.positions()));
+                if (chunk.size() >= chunkSize) {
+                    consumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+        }
     }
 }
@@ -0,0 +1,7 @@
+package searchengine.model;
+
+public enum Generation {
+    LIVE,
+    SHADOW,
+    RETIRED
+}
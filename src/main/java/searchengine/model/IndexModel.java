@@ -27,10 +27,14 @@ public class IndexModel implements Serializable {
     @Column(nullable = false, name = "index_rank")
     private float rank;
 
-    public IndexModel(PageModel page, LemmaModel lemma, float rank) {
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String positions;
+
+    public IndexModel(PageModel page, LemmaModel lemma, float rank, String positions) {
         this.page = page;
         this.lemma = lemma;
         this.rank = rank;
+        this.positions = positions;
     }
 
     public IndexModel() {
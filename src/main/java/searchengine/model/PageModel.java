@@ -27,6 +27,11 @@ public class PageModel implements Serializable {
     private int code;
     @Column(columnDefinition = "MEDIUMTEXT")
     private String content;
+    private String etag;
+    @Column(name = "last_modified")
+    private String lastModified;
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 
     @OneToMany(mappedBy = "page", cascade = CascadeType.ALL)
     private List<IndexModel> index = new LinkedList<>();
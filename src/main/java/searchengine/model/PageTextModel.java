@@ -0,0 +1,40 @@
+package searchengine.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "page_text")
+public class PageTextModel implements Serializable {
+
+    @Id
+    @Column(name = "page_id")
+    private long pageId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "page_id", referencedColumnName = "id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private PageModel page;
+
+    @Column(columnDefinition = "TEXT")
+    private String title;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String text;
+
+    public PageTextModel(long pageId, String title, String text) {
+        this.pageId = pageId;
+        this.title = title;
+        this.text = text;
+    }
+
+    public PageTextModel() {
+    }
+}
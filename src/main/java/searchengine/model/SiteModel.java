@@ -32,6 +32,10 @@ public class SiteModel implements Serializable {
 
     private String name;
 
+    @Enumerated(EnumType.STRING)
+    @Column(columnDefinition = "VARCHAR(16) DEFAULT 'LIVE'", nullable = false)
+    private Generation generation = Generation.LIVE;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "siteId", cascade = CascadeType.ALL)
     private List<PageModel> pageModelList = new ArrayList<>();
 
@@ -0,0 +1,72 @@
+package searchengine.pagesearch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomVisitedUrlSet implements VisitedUrlSet {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong size = new AtomicLong();
+
+    public BloomVisitedUrlSet(long expectedUrls, double falsePositiveRate) {
+        long n = Math.max(1, expectedUrls);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    @Override
+    public boolean add(String url) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        long hash1 = hash(bytes, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(bytes, 0xC2B2AE3D27D4EB4FL) | 1;
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if (setBit(bit)) {
+                added = true;
+            }
+        }
+        if (added) {
+            size.incrementAndGet();
+        }
+        return added;
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    private boolean setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << (bit & 63);
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    private long hash(byte[] bytes, long seed) {
+        long hash = seed ^ bytes.length;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,18 @@
+package searchengine.pagesearch;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ConcurrentVisitedUrlSet implements VisitedUrlSet {
+    private final Set<String> urlSet = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean add(String url) {
+        return urlSet.add(url);
+    }
+
+    @Override
+    public long size() {
+        return urlSet.size();
+    }
+}
@@ -0,0 +1,4 @@
+package searchengine.pagesearch;
+
+public record FrontierUrl(String url, int depth, long order) {
+}
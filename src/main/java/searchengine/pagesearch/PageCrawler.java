@@ -0,0 +1,275 @@
+package searchengine.pagesearch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import searchengine.config.SitesList;
+import searchengine.dto.PageDTO;
+import searchengine.dto.PageValidatorDTO;
+import searchengine.exception.CurrentInterruptedException;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Slf4j
+public class PageCrawler {
+    private static final int INTERNAL_SERVER_ERROR_CODE = 500;
+    private static final int ERROR_CODE = 400;
+    private static final int NOT_MODIFIED_CODE = 304;
+    private static final List<String> WRONG_TYPES = List.of(
+            "JPG", "gif", "gz", "jar", "jpeg", "jpg", "pdf", "png", "ppt", "pptx", "svg", "tar", "zip");
+
+    private final String url;
+    private final String siteUrl;
+    private final SitesList config;
+    private final HttpClient httpClient;
+    private final ExecutorService parserPool;
+    private final int maxInFlight;
+
+    private final UrlFrontier frontier;
+    private final BlockingQueue<PageDTO> pageQueue;
+    private final Function<String, PageValidatorDTO> validators;
+    private final AtomicInteger pageCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    public PageCrawler(String url, SitesList config, BlockingQueue<PageDTO> pageQueue,
+                       Function<String, PageValidatorDTO> validators) {
+        this.url = url;
+        this.pageQueue = pageQueue;
+        this.validators = validators;
+        this.siteUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.config = config;
+        this.maxInFlight = Math.max(1, config.getMaxRequestsPerHost());
+        this.frontier = new UrlFrontier(config);
+        this.parserPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.httpClient = newHttpClient(config);
+    }
+
+    static HttpClient newHttpClient(SitesList config) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(config.getRequestTimeout()))
+                .build();
+    }
+
+    public int crawl(Collection<String> seedUrls) throws InterruptedException {
+        try {
+            unfinished.incrementAndGet();
+            submit(url, 0);
+            seedUrls.forEach(seedUrl -> submit(seedUrl, 1));
+            if (unfinished.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+            done.get();
+        } catch (CancellationException e) {
+            throw new CurrentInterruptedException("Crawler stopped for " + url);
+        } catch (ExecutionException e) {
+            log.error("Crawl of " + url + " failed", e);
+        } catch (InterruptedException e) {
+            stop();
+            throw e;
+        } finally {
+            parserPool.shutdownNow();
+        }
+        log.info(pageCount.get() + " pages crawled in " + url + ", " + frontier.visitedCount() + " urls visited");
+        return pageCount.get();
+    }
+
+    public void stop() {
+        done.cancel(false);
+        parserPool.shutdownNow();
+    }
+
+    private void submit(String link, int depth) {
+        unfinished.incrementAndGet();
+        if (frontier.offer(link, depth)) {
+            dispatch();
+        } else {
+            unfinished.decrementAndGet();
+        }
+    }
+
+    private void dispatch() {
+        while (!done.isDone()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            FrontierUrl next = frontier.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                if (frontier.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            fetch(next);
+        }
+    }
+
+    static HttpRequest buildRequest(SitesList config, String pageUrl, PageValidatorDTO validator) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(toHttpUri(pageUrl))
+                .timeout(Duration.ofMillis(config.getRequestTimeout()));
+        if (config.getUserAgent() != null && !config.getUserAgent().isBlank()) {
+            builder.header("User-Agent", config.getUserAgent());
+        }
+        if (isHttpUrl(config.getReferrer())) {
+            builder.header("Referer", config.getReferrer().trim());
+        }
+        if (validator != null && validator.etag() != null) {
+            builder.header("If-None-Match", validator.etag());
+        }
+        if (validator != null && validator.lastModified() != null) {
+            builder.header("If-Modified-Since", validator.lastModified());
+        }
+        return builder.GET().build();
+    }
+
+    private static URI toHttpUri(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Empty url");
+        }
+        URI uri = URI.create(url.trim());
+        String scheme = uri.getScheme();
+        if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+            throw new IllegalArgumentException("Not an http url: " + url);
+        }
+        return uri;
+    }
+
+    private static boolean isHttpUrl(String url) {
+        try {
+            toHttpUri(url);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void fetch(FrontierUrl next) {
+        String pageUrl = next.url();
+        HttpRequest request;
+        try {
+            request = buildRequest(config, pageUrl, validators.apply(pageUrl));
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid url " + pageUrl + ": " + e.getMessage());
+            parserPool.execute(() -> complete(next, null, e));
+            return;
+        }
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenCompleteAsync((response, error) -> complete(next, response, error), parserPool);
+    }
+
+    private void complete(FrontierUrl next, HttpResponse<byte[]> response, Throwable error) {
+        try {
+            if (error != null) {
+                log.debug("Error parsing from ".concat(next.url()));
+                emit(new PageDTO(next.url(), "", INTERNAL_SERVER_ERROR_CODE));
+            } else {
+                emit(toPageDTO(next.url(), response, doc -> submitLinks(doc, next.depth() + 1)));
+            }
+        } catch (InterruptedException e) {
+            done.cancel(false);
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            if (unfinished.decrementAndGet() == 0) {
+                done.complete(null);
+            } else {
+                dispatch();
+            }
+        }
+    }
+
+    private void emit(PageDTO pageDto) throws InterruptedException {
+        if (pageDto != null && !done.isDone()) {
+            pageQueue.put(pageDto);
+            pageCount.incrementAndGet();
+        }
+    }
+
+    static PageDTO toPageDTO(String pageUrl, HttpResponse<byte[]> response, Consumer<Document> linkConsumer) {
+        try {
+            int status = response.statusCode();
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+            if (status == NOT_MODIFIED_CODE) {
+                return new PageDTO(pageUrl, "", status, etag, lastModified, null);
+            }
+            if (status >= ERROR_CODE) {
+                return new PageDTO(pageUrl, "", status);
+            }
+            String contentType = response.headers().firstValue("Content-Type").orElse("text/html");
+            if (!contentType.contains("html") && !contentType.contains("xml")) {
+                log.debug("Skip non html page ".concat(pageUrl));
+                return null;
+            }
+            Document doc = Jsoup.parse(new ByteArrayInputStream(response.body()), getCharset(contentType), pageUrl);
+            linkConsumer.accept(doc);
+            return new PageDTO(pageUrl, doc.outerHtml(), status, etag, lastModified, getContentHash(doc));
+        } catch (Exception e) {
+            log.debug("Error parsing from ".concat(pageUrl));
+            return new PageDTO(pageUrl, "", INTERNAL_SERVER_ERROR_CODE);
+        }
+    }
+
+    private void submitLinks(Document doc, int depth) {
+        for (Element el : doc.select("body").select("a")) {
+            String link = el.attr("abs:href");
+            if (isSiteLink(link)
+                    && isSiteElementsType(link)
+                    && !link.contains("#")
+                    && !link.contains("away.php?to")) {
+                submit(link, depth);
+            }
+        }
+    }
+
+    private boolean isSiteLink(String link) {
+        return link.startsWith(siteUrl) || link.startsWith(siteUrl.replaceFirst("://", "://www."));
+    }
+
+    private boolean isSiteElementsType(String pathPage) {
+        return !WRONG_TYPES.contains(pathPage.substring(pathPage.lastIndexOf(".") + 1));
+    }
+
+    private static String getContentHash(Document doc) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(doc.text().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String getCharset(String contentType) {
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index == -1) {
+            return null;
+        }
+        return contentType.substring(index + "charset=".length()).split(";")[0].replace("\"", "").trim();
+    }
+}
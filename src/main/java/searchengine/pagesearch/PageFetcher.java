@@ -0,0 +1,33 @@
+package searchengine.pagesearch;
+
+import org.springframework.stereotype.Component;
+import searchengine.config.SitesList;
+import searchengine.dto.PageDTO;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+@Component
+public class PageFetcher {
+    private final SitesList config;
+    private final HttpClient httpClient;
+
+    public PageFetcher(SitesList config) {
+        this.config = config;
+        this.httpClient = PageCrawler.newHttpClient(config);
+    }
+
+    public PageDTO fetchPage(String pageUrl) throws IOException, InterruptedException {
+        HttpRequest request;
+        try {
+            request = PageCrawler.buildRequest(config, pageUrl, null);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid url " + pageUrl, e);
+        }
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        return PageCrawler.toPageDTO(pageUrl, response, doc -> {
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package searchengine.pagesearch;
+
+import searchengine.config.SitesList;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UrlFrontier {
+    private final UrlNormalizer urlNormalizer = new UrlNormalizer();
+    private final VisitedUrlSet visitedUrls;
+    private final AtomicLong order = new AtomicLong();
+    private final PriorityBlockingQueue<FrontierUrl> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparingInt(FrontierUrl::depth).thenComparingLong(FrontierUrl::order));
+
+    public UrlFrontier(SitesList config) {
+        this.visitedUrls = config.isBloomFilter()
+                ? new BloomVisitedUrlSet(config.getBloomExpectedUrls(), config.getBloomFalsePositiveRate())
+                : new ConcurrentVisitedUrlSet();
+    }
+
+    public boolean offer(String url, int depth) {
+        if (!visitedUrls.add(urlNormalizer.normalize(url))) {
+            return false;
+        }
+        queue.add(new FrontierUrl(url, depth, order.getAndIncrement()));
+        return true;
+    }
+
+    public FrontierUrl poll() {
+        return queue.poll();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public long visitedCount() {
+        return visitedUrls.size();
+    }
+}
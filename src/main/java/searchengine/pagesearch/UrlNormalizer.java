@@ -0,0 +1,114 @@
+package searchengine.pagesearch;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class UrlNormalizer {
+    private static final String WWW_PREFIX = "www.";
+
+    public String normalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException e) {
+            return url.trim();
+        }
+        if (uri.getHost() == null) {
+            return url.trim();
+        }
+        String scheme = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = getHost(uri);
+        StringBuilder builder = new StringBuilder(url.length());
+        builder.append(scheme).append("://").append(host);
+        if (!isDefaultPort(scheme, uri.getPort())) {
+            builder.append(':').append(uri.getPort());
+        }
+        builder.append(normalizePath(uri.getRawPath()));
+        String query = normalizeQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            builder.append('?').append(query);
+        }
+        return builder.toString();
+    }
+
+    public String getPath(String pageUrl, String siteUrl) {
+        String path = getPathAndQuery(pageUrl);
+        String sitePath = normalizePath(getPathAndQuery(siteUrl));
+        if (!sitePath.equals("/") && (path.equals(sitePath) || path.startsWith(sitePath + "/")
+                || path.startsWith(sitePath + "?"))) {
+            path = path.substring(sitePath.length());
+        }
+        return path.isEmpty() || path.startsWith("?") ? "/" + path : path;
+    }
+
+    public boolean belongsToSite(String pageUrl, String siteUrl) {
+        URI page;
+        URI site;
+        try {
+            page = new URI(pageUrl.trim());
+            site = new URI(siteUrl.trim());
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        if (page.getHost() == null || site.getHost() == null
+                || !getHost(page).equals(getHost(site)) || getPort(page) != getPort(site)) {
+            return false;
+        }
+        String sitePath = normalizePath(site.getRawPath());
+        String pagePath = normalizePath(page.getRawPath());
+        return sitePath.equals("/") || pagePath.equals(sitePath) || pagePath.startsWith(sitePath + "/");
+    }
+
+    private String getPathAndQuery(String url) {
+        try {
+            URI uri = new URI(url.trim());
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+        } catch (URISyntaxException e) {
+            int schemeEnd = url.indexOf("://");
+            int pathStart = url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+            return pathStart < 0 ? "/" : url.substring(pathStart);
+        }
+    }
+
+    private String getHost(URI uri) {
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        return host.startsWith(WWW_PREFIX) ? host.substring(WWW_PREFIX.length()) : host;
+    }
+
+    private int getPort(URI uri) {
+        String scheme = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return scheme.equals("https") ? 443 : 80;
+    }
+
+    private boolean isDefaultPort(String scheme, int port) {
+        return port == -1 || (port == 80 && scheme.equals("http")) || (port == 443 && scheme.equals("https"));
+    }
+
+    private String normalizePath(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    private String normalizeQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        String[] params = Arrays.stream(query.split("&"))
+                .filter(param -> !param.isEmpty())
+                .sorted()
+                .toArray(String[]::new);
+        return String.join("&", params);
+    }
+}
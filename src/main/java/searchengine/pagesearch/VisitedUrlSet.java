@@ -0,0 +1,8 @@
+package searchengine.pagesearch;
+
+public interface VisitedUrlSet {
+
+    boolean add(String url);
+
+    long size();
+}
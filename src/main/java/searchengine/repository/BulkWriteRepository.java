@@ -0,0 +1,166 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import searchengine.config.SitesList;
+import searchengine.dto.IndexDTO;
+import searchengine.model.LemmaModel;
+import searchengine.model.PageModel;
+import searchengine.model.PageTextModel;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class BulkWriteRepository {
+    private static final String INSERT_PAGE = "insert into page (site_id, path, code, content, etag, last_modified, " +
+            "content_hash) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_PAGE = "update page set code = ?, content = ?, etag = ?, last_modified = ?, " +
+            "content_hash = ? where id = ?";
+    private static final String UPSERT_PAGE_TEXT = "insert into page_text (page_id, title, text) values (?, ?, ?) " +
+            "on duplicate key update title = values(title), text = values(text)";
+    private static final String INSERT_LEMMA = "insert into lemma (site_id, lemma, frequency) values (?, ?, ?)";
+    private static final String UPDATE_LEMMA = "update lemma set frequency = ? where id = ?";
+    private static final String INSERT_INDEX = "insert into words_index (page_id, lemma_id, index_rank, positions) " +
+            "values (?, ?, ?, ?)";
+
+    private static final String SELECT_SITE_PAGES = "select id from page where site_id = ? limit ?";
+    private static final String DELETE_PAGE_INDEXES = "delete from words_index where page_id in (:ids)";
+    private static final String DELETE_PAGES = "delete from page where id in (:ids)";
+    private static final String DELETE_SITE_LEMMAS = "delete from lemma where site_id = ? limit ?";
+    private static final String DELETE_SITE = "delete from site where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SitesList config;
+
+    public void savePages(List<PageModel> pageList) {
+        List<PageModel> newPages = new ArrayList<>();
+        List<PageModel> existingPages = new ArrayList<>();
+        pageList.forEach(page -> (page.getId() == 0 ? newPages : existingPages).add(page));
+        insertWithKeys(INSERT_PAGE, newPages, (statement, page) -> {
+            statement.setLong(1, page.getSiteId().getId());
+            statement.setString(2, page.getPath());
+            statement.setInt(3, page.getCode());
+            statement.setString(4, page.getContent());
+            statement.setString(5, page.getEtag());
+            statement.setString(6, page.getLastModified());
+            statement.setString(7, page.getContentHash());
+        }, PageModel::setId);
+        update(UPDATE_PAGE, existingPages, (statement, page) -> {
+            statement.setInt(1, page.getCode());
+            statement.setString(2, page.getContent());
+            statement.setString(3, page.getEtag());
+            statement.setString(4, page.getLastModified());
+            statement.setString(5, page.getContentHash());
+            statement.setLong(6, page.getId());
+        });
+    }
+
+    public void savePageTexts(List<PageTextModel> pageTexts) {
+        update(UPSERT_PAGE_TEXT, pageTexts, (statement, pageText) -> {
+            statement.setLong(1, pageText.getPageId());
+            statement.setString(2, pageText.getTitle());
+            statement.setString(3, pageText.getText());
+        });
+    }
+
+    public void saveLemmas(Collection<LemmaModel> lemmaList) {
+        List<LemmaModel> newLemmas = new ArrayList<>();
+        List<LemmaModel> existingLemmas = new ArrayList<>();
+        lemmaList.forEach(lemma -> (lemma.getId() == 0 ? newLemmas : existingLemmas).add(lemma));
+        insertWithKeys(INSERT_LEMMA, newLemmas, (statement, lemma) -> {
+            statement.setLong(1, lemma.getSiteModelId().getId());
+            statement.setString(2, lemma.getLemma());
+            statement.setInt(3, lemma.getFrequency());
+        }, LemmaModel::setId);
+        update(UPDATE_LEMMA, existingLemmas, (statement, lemma) -> {
+            statement.setInt(1, lemma.getFrequency());
+            statement.setLong(2, lemma.getId());
+        });
+    }
+
+    public void insertIndexes(List<IndexDTO> indexDtoList) {
+        update(INSERT_INDEX, indexDtoList, (statement, index) -> {
+            statement.setLong(1, index.pageID());
+            statement.setLong(2, index.lemmaID());
+            statement.setFloat(3, index.rank());
+            statement.setString(4, index.positions());
+        });
+    }
+
+    public void purgeSite(long siteId) {
+        int batchSize = getBatchSize();
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<Long> pageIds;
+        do {
+            pageIds = jdbcTemplate.queryForList(SELECT_SITE_PAGES, Long.class, siteId, batchSize);
+            if (!pageIds.isEmpty()) {
+                Map<String, List<Long>> params = Map.of("ids", pageIds);
+                namedJdbcTemplate.update(DELETE_PAGE_INDEXES, params);
+                namedJdbcTemplate.update(DELETE_PAGES, params);
+            }
+        } while (pageIds.size() == batchSize);
+        int deletedLemmas;
+        do {
+            deletedLemmas = jdbcTemplate.update(DELETE_SITE_LEMMAS, siteId, batchSize);
+        } while (deletedLemmas == batchSize);
+        jdbcTemplate.update(DELETE_SITE, siteId);
+    }
+
+    private <T> void update(String sql, List<T> rows, StatementBinder<T> binder) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows, getBatchSize(), binder::bind);
+    }
+
+    private <T> void insertWithKeys(String sql, List<T> rows, StatementBinder<T> binder, KeySetter<T> keySetter) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int batchSize = getBatchSize();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    List<T> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                    for (T row : chunk) {
+                        binder.bind(statement, row);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (T row : chunk) {
+                            if (!keys.next()) {
+                                throw new SQLException("Missing generated key for " + sql);
+                            }
+                            keySetter.set(row, keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private int getBatchSize() {
+        return Math.max(1, config.getJdbcBatchSize());
+    }
+
+    private interface StatementBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    private interface KeySetter<T> {
+        void set(T row, long key);
+    }
+}
@@ -1,22 +1,31 @@
 package searchengine.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.IndexModel;
-import searchengine.model.LemmaModel;
-import searchengine.model.PageModel;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface IndexRepository extends JpaRepository<IndexModel, Long> {
 
     @Transactional
-    @Query(value = "select * from Words_index where Words_index.lemma_id in :lemmas and Words_index.page_id in :pages", nativeQuery = true)
-    List<IndexModel> findByPageAndLemmas(@Param("lemmas") List<LemmaModel> lemmaList,
-                                         @Param("pages") List<PageModel> pages);
+    @Query("select i from IndexModel i where i.page.id in :pages and i.lemma.id in :lemmas")
+    List<IndexModel> findByPageIdsAndLemmaIds(@Param("pages") Collection<Long> pageIds,
+                                              @Param("lemmas") Collection<Long> lemmaIds);
+
+    @Transactional
+    @Query("select i.lemma.id from IndexModel i where i.page.id in :pages")
+    List<Long> findLemmaIdsByPageIds(@Param("pages") Collection<Long> pageIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IndexModel i where i.page.id in :pages")
+    void deleteByPageIds(@Param("pages") Collection<Long> pageIds);
 
 }
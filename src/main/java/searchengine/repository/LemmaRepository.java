@@ -1,28 +1,41 @@
 package searchengine.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.LemmaModel;
 import searchengine.model.SiteModel;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface LemmaRepository extends JpaRepository<LemmaModel, Long> {
 
-    @Transactional
-    LemmaModel getById(long lemmaID);
-
     @Transactional
     long countBySiteModelId(SiteModel site);
 
     @Transactional
-    List<LemmaModel> findBySiteModelId(SiteModel siteId);
+    @Query("select l from LemmaModel l where l.siteModelId = :site and l.id > :afterId order by l.id")
+    List<LemmaModel> findBySiteModelId(@Param("site") SiteModel site, @Param("afterId") long afterId,
+                                       Pageable pageable);
 
     @Transactional
     @Query(value = "select * from Lemma where Lemma.lemma in (:lemmas) AND Lemma.site_id = :site", nativeQuery = true)
     List<LemmaModel> findLemmaListBySite(List<String> lemmas, SiteModel site);
 
+    @Transactional
+    @Modifying
+    @Query("update LemmaModel l set l.frequency = l.frequency + :delta where l.id in :ids")
+    void updateFrequency(@Param("ids") Collection<Long> lemmaIds, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LemmaModel l where l.siteModelId = :site and l.frequency <= 0")
+    void deleteUnusedBySite(@Param("site") SiteModel site);
+
 }
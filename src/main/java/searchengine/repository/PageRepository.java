@@ -1,12 +1,14 @@
 package searchengine.repository;
 
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
-import searchengine.model.LemmaModel;
+import searchengine.dto.PageValidatorDTO;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
 
@@ -19,18 +21,17 @@ public interface PageRepository extends JpaRepository<PageModel, Long> {
     long countBySiteId(SiteModel siteId);
 
     @Transactional
-    PageModel getById(long pageID);
+    PageModel findBySiteIdAndPath(SiteModel siteId, String path);
 
     @Transactional
-    Iterable<PageModel> findBySiteId(SiteModel sitePath);
+    @Query("select new searchengine.dto.PageValidatorDTO(p.id, p.path, p.etag, p.lastModified, p.contentHash) " +
+            "from PageModel p where p.siteId = :site and p.id > :afterId order by p.id")
+    List<PageValidatorDTO> findValidatorsBySite(@Param("site") SiteModel site, @Param("afterId") long afterId,
+                                                Pageable pageable);
 
     @Transactional
-    @Query(value = "SELECT * FROM Page JOIN Words_index ON Page.id = Words_index.page_id WHERE Words_index.lemma_id IN (:lemma) AND Page.site_id IN (:siteList)", nativeQuery = true)
-    List<PageModel> findByLemma(@Param("lemma") List<LemmaModel> lemma, @Param("siteList") List<SiteModel> siteList);
-
-    @Transactional
-    @Query(value = "SELECT * FROM Page JOIN Words_index ON Page.id = Words_index.page_id WHERE Words_index.lemma_id IN (:lemma) AND Page.id IN (:pagesList) AND Page.site_id IN (:siteList)", nativeQuery = true)
-    List<PageModel> findByLemmaFromPagesList(@Param("lemma") List<LemmaModel> lemma, @Param("pagesList") List<PageModel> pages,
-                                             @Param("siteList") List<SiteModel> siteList);
+    @Modifying
+    @Query("update PageModel p set p.etag = :etag, p.lastModified = :lastModified where p.id = :id")
+    void updateValidators(@Param("id") long id, @Param("etag") String etag, @Param("lastModified") String lastModified);
 
 }
@@ -0,0 +1,9 @@
+package searchengine.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import searchengine.model.PageTextModel;
+
+@Repository
+public interface PageTextRepository extends JpaRepository<PageTextModel, Long> {
+}
@@ -0,0 +1,42 @@
+package searchengine.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+@Repository
+public class PostingRepository {
+    private static final String SELECT_SITE_POSTINGS = "select l.lemma, l.id, i.page_id, i.index_rank " +
+            "from words_index i join lemma l on l.id = i.lemma_id where l.site_id = ? " +
+            "order by cast(l.lemma as binary), i.page_id";
+    private static final String SELECT_SITE_PAGE_LENGTHS = "select i.page_id, sum(i.index_rank) " +
+            "from words_index i join page p on p.id = i.page_id where p.site_id = ? " +
+            "group by i.page_id order by i.page_id";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public PostingRepository(DataSource dataSource) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    public void streamSitePostings(long siteId, PostingConsumer consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getFloat(4));
+        streamingJdbcTemplate.query(SELECT_SITE_POSTINGS, handler, siteId);
+    }
+
+    public void streamSitePageLengths(long siteId, PageLengthConsumer consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(rs.getLong(1), rs.getFloat(2));
+        streamingJdbcTemplate.query(SELECT_SITE_PAGE_LENGTHS, handler, siteId);
+    }
+
+    public interface PageLengthConsumer {
+        void accept(long pageId, float rankSum);
+    }
+
+    public interface PostingConsumer {
+        void accept(String lemma, long lemmaId, long pageId, float rank);
+    }
+}
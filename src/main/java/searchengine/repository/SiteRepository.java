@@ -2,15 +2,40 @@ package searchengine.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.Generation;
 import searchengine.model.SiteModel;
+import searchengine.model.Status;
 
+import java.util.List;
 
 
 @Repository
 public interface SiteRepository extends JpaRepository<SiteModel, Long> {
 
     @Transactional
-    SiteModel findByUrl(String url);
+    SiteModel findByUrlAndGeneration(String url, Generation generation);
+
+    @Transactional
+    List<SiteModel> findByGeneration(Generation generation);
+
+    @Transactional
+    List<SiteModel> findByGenerationNot(Generation generation);
+
+    @Transactional
+    List<SiteModel> findByUrlAndGenerationNot(String url, Generation generation);
+
+    @Transactional
+    boolean existsByUrlAndStatus(String url, Status status);
+
+    @Transactional
+    @Modifying
+    @Query("update SiteModel s set s.generation = case when s.id = :id " +
+            "then searchengine.model.Generation.LIVE else searchengine.model.Generation.RETIRED end " +
+            "where s.url = :url and (s.id = :id or s.generation = searchengine.model.Generation.LIVE)")
+    void promoteGeneration(@Param("url") String url, @Param("id") long id);
 }
@@ -0,0 +1,23 @@
+package searchengine.scoring;
+
+public record Bm25ScoringModel(float k1, float b) implements ScoringModel {
+
+    @Override
+    public TermScorer termScorer(CorpusStatistics statistics, long documentFrequency) {
+        double idf = Math.log(1 + (statistics.pageCount() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        float weight = (float) (idf * (k1 + 1));
+        float lengthNorm = (float) (k1 * b / Math.max(statistics.averagePageLength(), 1));
+        float baseNorm = k1 * (1 - b);
+        return new TermScorer() {
+            @Override
+            public float score(float rank, int pageLength) {
+                return weight * rank / (rank + baseNorm + lengthNorm * pageLength);
+            }
+
+            @Override
+            public float maxScore(float maxRank) {
+                return weight * maxRank / (maxRank + baseNorm);
+            }
+        };
+    }
+}
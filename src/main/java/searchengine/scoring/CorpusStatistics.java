@@ -0,0 +1,4 @@
+package searchengine.scoring;
+
+public record CorpusStatistics(long pageCount, double averagePageLength) {
+}
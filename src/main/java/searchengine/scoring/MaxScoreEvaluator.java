@@ -0,0 +1,105 @@
+package searchengine.scoring;
+
+import searchengine.index.PostingCursor;
+import searchengine.index.PostingList;
+import searchengine.index.ScoredPage;
+import searchengine.index.Segment;
+import searchengine.index.SiteIndex;
+import searchengine.index.TopKCollector;
+
+import java.util.Collection;
+
+public class MaxScoreEvaluator {
+    private static final float BOUND_SLACK = 1.0001f;
+
+    private final QueryPlan plan;
+
+    public MaxScoreEvaluator(QueryPlan plan) {
+        this.plan = plan;
+    }
+
+    public void evaluate(SiteIndex siteIndex, Collection<Long> lemmaIds, TopKCollector collector) {
+        for (int segment = 0; segment < siteIndex.segments().size(); segment++) {
+            evaluate(siteIndex, segment, lemmaIds, collector);
+        }
+    }
+
+    private void evaluate(SiteIndex siteIndex, int segmentIndex, Collection<Long> lemmaIds, TopKCollector collector) {
+        Segment segment = siteIndex.segments().get(segmentIndex);
+        TermScorer[] scorers = plan.requiredScorers();
+        PostingCursor[] cursors = new PostingCursor[scorers.length];
+        float[] remainingBounds = new float[scorers.length + 1];
+        for (int i = 0; i < cursors.length; i++) {
+            PostingList postingList = segment.getPostingList(plan.requiredLemmas().get(i));
+            if (postingList == null) {
+                return;
+            }
+            lemmaIds.add(postingList.lemmaId());
+            cursors[i] = postingList.cursor();
+            remainingBounds[i] = scorers[i].maxScore(postingList.maxRank());
+        }
+        TermScorer[] optionalScorers = plan.optionalScorers();
+        PostingCursor[] optionalCursors = new PostingCursor[optionalScorers.length];
+        float[] optionalBounds = new float[optionalScorers.length + 1];
+        for (int i = optionalCursors.length - 1; i >= 0; i--) {
+            PostingList postingList = segment.getPostingList(plan.optionalLemmas().get(i));
+            optionalBounds[i] = optionalBounds[i + 1];
+            if (postingList != null) {
+                lemmaIds.add(postingList.lemmaId());
+                optionalCursors[i] = postingList.cursor();
+                optionalBounds[i] += optionalScorers[i].maxScore(postingList.maxRank());
+            }
+        }
+        remainingBounds[cursors.length] = optionalBounds[0];
+        for (int i = cursors.length - 1; i >= 0; i--) {
+            remainingBounds[i] += remainingBounds[i + 1];
+        }
+        int target = 0;
+        candidates:
+        while (cursors[0].advance(target)) {
+            int pageId = cursors[0].pageId();
+            for (int i = 1; i < cursors.length; i++) {
+                if (!cursors[i].advance(pageId)) {
+                    return;
+                }
+                if (cursors[i].pageId() != pageId) {
+                    target = cursors[i].pageId();
+                    continue candidates;
+                }
+            }
+            target = pageId + 1;
+            if (!siteIndex.isLive(segmentIndex, pageId)) {
+                continue;
+            }
+            float threshold = collector.threshold();
+            if (cannotReach(remainingBounds[0], threshold)) {
+                collector.skip();
+                continue;
+            }
+            int pageLength = segment.pageLength(pageId);
+            float score = 0;
+            for (int i = 0; i < cursors.length; i++) {
+                if (cannotReach(score + remainingBounds[i], threshold)) {
+                    collector.skip();
+                    continue candidates;
+                }
+                score += scorers[i].score(cursors[i].rank(), pageLength);
+            }
+            for (int i = 0; i < optionalCursors.length; i++) {
+                if (cannotReach(score + optionalBounds[i], threshold)) {
+                    collector.skip();
+                    continue candidates;
+                }
+                PostingCursor cursor = optionalCursors[i];
+                if (cursor != null && cursor.advance(pageId) && cursor.pageId() == pageId) {
+                    score += optionalScorers[i].score(cursor.rank(), pageLength);
+                }
+            }
+            collector.offer(new ScoredPage(siteIndex.siteId(), pageId, score));
+        }
+    }
+
+    private static boolean cannotReach(float bound, float threshold) {
+        return bound * BOUND_SLACK < threshold;
+    }
+}
@@ -0,0 +1,13 @@
+package searchengine.scoring;
+
+import java.util.List;
+
+public record QueryPlan(List<String> requiredLemmas, TermScorer[] requiredScorers,
+                        List<String> optionalLemmas, TermScorer[] optionalScorers) {
+
+    public static final QueryPlan EMPTY = new QueryPlan(List.of(), new TermScorer[0], List.of(), new TermScorer[0]);
+
+    public boolean isEmpty() {
+        return requiredLemmas.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package searchengine.scoring;
+
+public class RankSumScoringModel implements ScoringModel {
+    private static final TermScorer RANK = new TermScorer() {
+        @Override
+        public float score(float rank, int pageLength) {
+            return rank;
+        }
+
+        @Override
+        public float maxScore(float maxRank) {
+            return maxRank;
+        }
+    };
+
+    @Override
+    public TermScorer termScorer(CorpusStatistics statistics, long documentFrequency) {
+        return RANK;
+    }
+}
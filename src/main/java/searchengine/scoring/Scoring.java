@@ -0,0 +1,6 @@
+package searchengine.scoring;
+
+public enum Scoring {
+    BM25,
+    RANK_SUM
+}
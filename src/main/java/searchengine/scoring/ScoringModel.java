@@ -0,0 +1,5 @@
+package searchengine.scoring;
+
+public interface ScoringModel {
+    TermScorer termScorer(CorpusStatistics statistics, long documentFrequency);
+}
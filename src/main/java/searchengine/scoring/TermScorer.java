@@ -0,0 +1,7 @@
+package searchengine.scoring;
+
+public interface TermScorer {
+    float score(float rank, int pageLength);
+
+    float maxScore(float maxRank);
+}
@@ -3,7 +3,7 @@ package searchengine.services;
 import searchengine.dto.ResultDTO;
 
 public interface IndexingService {
-    ResultDTO startIndexing();
+    ResultDTO startIndexing(boolean incremental);
 
     ResultDTO stopIndexing();
 
@@ -4,5 +4,5 @@ import searchengine.dto.ResultDTO;
 
 public interface SearchService {
 
-    ResultDTO searchSiteSelect(String query, String site, int offset);
+    ResultDTO searchSiteSelect(String query, String site, int offset, String cursor);
 }
@@ -4,13 +4,17 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import searchengine.index.InvertedIndex;
 import searchengine.lemmaindexer.LemmaIndexer;
-import searchengine.parser.WebParser;
 import searchengine.config.Site;
 import searchengine.config.SitesList;
 import searchengine.dto.ResultDTO;
+import searchengine.engines.PageIndexingEngine;
+import searchengine.engines.SiteGenerationPurger;
 import searchengine.engines.SiteIndexingEngine;
 import searchengine.model.SiteModel;
+import searchengine.pagesearch.UrlNormalizer;
+import searchengine.repository.BulkWriteRepository;
 import searchengine.repository.IndexRepository;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
@@ -18,6 +22,7 @@ import searchengine.repository.SiteRepository;
 import searchengine.services.IndexingService;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -32,11 +37,15 @@ public class IndexingServiceImpl implements IndexingService {
     private final SiteRepository siteRepository;
     private final LemmaRepository lemmaRepository;
     private final IndexRepository indexRepository;
+    private final BulkWriteRepository bulkWriteRepository;
     private final LemmaIndexer lemmaIndexer;
-    private final WebParser webParser;
+    private final InvertedIndex invertedIndex;
+    private final SiteGenerationPurger generationPurger;
+    private final PageIndexingEngine pageIndexingEngine;
     private final SitesList config;
+    private final UrlNormalizer urlNormalizer = new UrlNormalizer();
     @Override
-    public ResultDTO startIndexing() {
+    public ResultDTO startIndexing(boolean incremental) {
         if (isIndexingActive()) {
             log.debug("Indexing is already running.");
             return new ResultDTO(false, "Индексация уже запущена");
@@ -51,7 +60,8 @@ public class IndexingServiceImpl implements IndexingService {
                 siteModel.setName(site.getName());
                 log.info("Indexing web site ".concat(site.getName()));
                 executorService.submit(new SiteIndexingEngine(pageRepository, siteRepository, lemmaRepository,
-                        indexRepository, lemmaIndexer, webParser, url, config));
+                        indexRepository, bulkWriteRepository, lemmaIndexer, invertedIndex, generationPurger, url,
+                        config, incremental));
             }
             executorService.shutdown();
             log.info("Все сайты проиндексированы");
@@ -81,34 +91,41 @@ public class IndexingServiceImpl implements IndexingService {
         return false;
     }
 
-    public boolean indexPage(String urlPage) {
-
-        if (isUrlSiteEquals(urlPage)) {
-            log.info("Начата переиндексация сайта - " + urlPage);
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            executorService.submit(new SiteIndexingEngine(pageRepository, siteRepository, lemmaRepository,
-                    indexRepository, lemmaIndexer, webParser, urlPage, config));
-            executorService.shutdown();
-            return true;
-        } else {
-            return false;
+    public PageIndexingEngine.Result indexPage(Site site, String urlPage) {
+        log.info("Начата переиндексация страницы - " + urlPage);
+        try {
+            return pageIndexingEngine.indexPage(site, urlPage);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PageIndexingEngine.Result.INTERRUPTED;
         }
-
     }
 
-    private boolean isUrlSiteEquals(String url) {
-        return config.getSites().stream().anyMatch(site ->  site.getUrl().equals(url));
+    private Optional<Site> findSiteByPageUrl(String url) {
+        return config.getSites().stream()
+                .filter(site -> urlNormalizer.belongsToSite(url, site.getUrl()))
+                .findFirst();
     }
+
     @Override
     public ResultDTO urlCheckAndPaging(String url) {
         if (url.isEmpty()) {
             return new ResultDTO(false, "Страница не указана", HttpStatus.BAD_REQUEST);
         } else {
-            if (indexPage(url)) {
-                return new ResultDTO(true, HttpStatus.OK);
-            } else {
+            Optional<Site> site = findSiteByPageUrl(url);
+            if (site.isEmpty()) {
                 return new ResultDTO(false, "Указанная страница" + "за пределами конфигурационного файла", HttpStatus.BAD_REQUEST);
             }
+            return switch (indexPage(site.get(), url)) {
+                case INDEXED -> new ResultDTO(true, HttpStatus.OK);
+                case NOT_HTML -> new ResultDTO(false, "Указанная страница не является HTML-страницей",
+                        HttpStatus.BAD_REQUEST);
+                case SITE_INDEXING -> new ResultDTO(false, "Индексация сайта уже запущена", HttpStatus.CONFLICT);
+                case FETCH_FAILED -> new ResultDTO(false, "Не удалось загрузить указанную страницу",
+                        HttpStatus.BAD_GATEWAY);
+                case INTERRUPTED -> new ResultDTO(false, "Переиндексация страницы прервана",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            };
         }
     }
 
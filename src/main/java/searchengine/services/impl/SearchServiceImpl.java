@@ -2,69 +2,86 @@ package searchengine.services.impl;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import searchengine.analyzer.Tokenizer;
+import searchengine.cache.SearchResultCache;
 import searchengine.dto.ResultDTO;
-import searchengine.dto.SearchDTO;
-import searchengine.model.LemmaModel;
+import searchengine.dto.SearchPageDTO;
+import searchengine.index.InvertedIndex;
+import searchengine.index.ResultCursor;
+import searchengine.model.Generation;
 import searchengine.model.SiteModel;
 import searchengine.repository.SiteRepository;
 import searchengine.engines.SearchEngine;
 import searchengine.services.SearchService;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
-public record SearchServiceImpl(SiteRepository siteRepository, SearchEngine searchEngine) implements SearchService {
+public record SearchServiceImpl(SiteRepository siteRepository, SearchEngine searchEngine, InvertedIndex invertedIndex,
+                                SearchResultCache searchResultCache) implements SearchService {
 
     private static final int SEARCH_RESULT_LIMIT = 30;
 
-    public List<SearchDTO> getSearchFromOneSite(String text, String url, int start, int limit) {
-        SiteModel site = siteRepository.findByUrl(url);
-        List<String> textLemmaList = searchEngine.getLemmaFromSearchText(text);
-        List<LemmaModel> foundLemmaList = searchEngine.getLemmaModelFromSite(textLemmaList, site);
-        List<SiteModel> sites = new ArrayList<>();
-        sites.add(site);
-        return searchEngine.createSearchDTOList(foundLemmaList, textLemmaList, start, limit, sites);
+    public SearchPageDTO getSearchFromOneSite(String text, SiteModel site, int start, int limit, String cursor) {
+        SearchResultCache.Key key = new SearchResultCache.Key(normalize(text), site.getId(),
+                invertedIndex.version(site.getId()), start, limit, cursor);
+        SearchPageDTO cached = searchResultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return search(key, text, List.of(site));
     }
 
-    public List<SearchDTO> getFullSearch(String text, int start, int limit) {
-        List<SiteModel> siteList = siteRepository.findAll();
-        List<SearchDTO> result = new ArrayList<>();
-        List<LemmaModel> foundLemmaList = new ArrayList<>();
-        List<String> textLemmaList = searchEngine.getLemmaFromSearchText(text);
-        int i = 0;
-        while (i < siteList.size()) {
-            SiteModel site = siteList.get(i);
-            foundLemmaList.addAll(searchEngine.getLemmaModelFromSite(textLemmaList, site));
-            i++;
+    public SearchPageDTO getFullSearch(String text, int start, int limit, String cursor) {
+        SearchResultCache.Key key = new SearchResultCache.Key(normalize(text), SearchResultCache.ALL_SITES,
+                invertedIndex.version(), start, limit, cursor);
+        SearchPageDTO cached = searchResultCache.get(key);
+        if (cached != null) {
+            return cached;
         }
-        List<SearchDTO> searchData;
-        searchData = searchEngine.createSearchDTOList(foundLemmaList, textLemmaList, start, limit, siteList);
-        searchData.sort((o1, o2) -> Float.compare(o2.relevance(), o1.relevance()));
-        if (searchData.size() > limit) {
-            int y = start;
-            while (y < limit) {
-                result.add(searchData.get(y));
-                y++;
-            }
-            return result;
+        return search(key, text, siteRepository.findByGeneration(Generation.LIVE));
+    }
+
+    private SearchPageDTO search(SearchResultCache.Key key, String text, List<SiteModel> sites) {
+        ResultCursor after = key.cursor() == null ? null : ResultCursor.decode(key.cursor());
+        List<String> textLemmaList = searchEngine.getLemmaFromSearchText(text);
+        SearchPageDTO searchPage = searchEngine.createSearchDTOList(textLemmaList, key.offset(), key.limit(), sites,
+                after);
+        searchResultCache.put(key, searchPage);
+        return searchPage;
+    }
+
+    private String normalize(String text) {
+        Set<String> words = new TreeSet<>();
+        Tokenizer tokenizer = new Tokenizer(text);
+        while (tokenizer.next()) {
+            words.add(tokenizer.word());
         }
-        return searchData;
+        return String.join(" ", words);
     }
 
     @Override
-    public ResultDTO searchSiteSelect(String query, String site, int offset) {
-        List<SearchDTO> searchData;
-        if (!site.isEmpty()) {
-            if (siteRepository.findByUrl(site) == null) {
-                return new ResultDTO(false, "Данная страница находится за пределами сайтов,\n" +
-                        "указанных в конфигурационном файле", HttpStatus.BAD_REQUEST);
+    public ResultDTO searchSiteSelect(String query, String site, int offset, String cursor) {
+        SearchPageDTO searchPage;
+        try {
+            if (!site.isEmpty()) {
+                SiteModel siteModel = siteRepository.findByUrlAndGeneration(site, Generation.LIVE);
+                if (siteModel == null) {
+                    return new ResultDTO(false, "Данная страница находится за пределами сайтов,\n" +
+                            "указанных в конфигурационном файле", HttpStatus.BAD_REQUEST);
+                } else {
+                    searchPage = getSearchFromOneSite(query, siteModel, offset, SEARCH_RESULT_LIMIT, cursor);
+                }
             } else {
-                searchData = getSearchFromOneSite(query, site, offset, SEARCH_RESULT_LIMIT);
+                searchPage = getFullSearch(query, offset, SEARCH_RESULT_LIMIT, cursor);
             }
-        } else {
-            searchData = getFullSearch(query, offset, SEARCH_RESULT_LIMIT);
+        } catch (IllegalArgumentException e) {
+            return new ResultDTO(false, "Некорректный курсор постраничного вывода", HttpStatus.BAD_REQUEST);
         }
-        return new ResultDTO(true, searchData.size(), searchData, HttpStatus.OK);
+        ResultDTO result = new ResultDTO(true, searchPage.count(), searchPage.data(), HttpStatus.OK);
+        result.setNextCursor(searchPage.nextCursor());
+        return result;
     }
 }
@@ -1,10 +1,14 @@
 package searchengine.services.impl;
 
 import org.springframework.stereotype.Service;
+import searchengine.cache.SearchResultCache;
+import searchengine.dto.statistics.CacheStatisticsItem;
 import searchengine.dto.statistics.DetailedStatisticsItem;
 import searchengine.dto.statistics.StatisticsData;
 import searchengine.dto.statistics.StatisticsResponse;
 import searchengine.dto.statistics.TotalStatistics;
+import searchengine.engines.LemmaEngine;
+import searchengine.model.Generation;
 import searchengine.model.SiteModel;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
@@ -13,17 +17,19 @@ import searchengine.services.StatisticsService;
 
 
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
-public record StatisticsServiceImpl(PageRepository pageRepository, LemmaRepository lemmaRepository, SiteRepository siteRepository) implements StatisticsService {
+public record StatisticsServiceImpl(PageRepository pageRepository, LemmaRepository lemmaRepository, SiteRepository siteRepository,
+                                    LemmaEngine lemmaEngine, SearchResultCache searchResultCache) implements StatisticsService {
 
-    private TotalStatistics getTotalStatistics() {
-        long sites = siteRepository.count();
-        long pages = pageRepository.count();
-        long lemmas = lemmaRepository.count();
-        return new TotalStatistics(sites, pages, lemmas, true);
+    private TotalStatistics getTotalStatistics(List<DetailedStatisticsItem> detailedList) {
+        long pages = detailedList.stream().mapToLong(DetailedStatisticsItem::getPages).sum();
+        long lemmas = detailedList.stream().mapToLong(DetailedStatisticsItem::getLemmas).sum();
+        return new TotalStatistics(detailedList.size(), pages, lemmas, true);
     }
 
     private DetailedStatisticsItem getDetailedFromDetailedStatisticItem(SiteModel site) {
@@ -38,13 +44,19 @@ public record StatisticsServiceImpl(PageRepository pageRepository, LemmaReposito
     }
 
     private List<DetailedStatisticsItem> getDetailedStatisticsItemList() {
-        List<SiteModel> siteList = siteRepository.findAll();
-        return siteList.stream().map(this::getDetailedFromDetailedStatisticItem).collect(Collectors.toList());
+        Map<String, SiteModel> siteByUrl = new LinkedHashMap<>();
+        for (SiteModel site : siteRepository.findByGenerationNot(Generation.RETIRED)) {
+            siteByUrl.merge(site.getUrl(), site,
+                    (current, other) -> other.getGeneration() == Generation.SHADOW ? other : current);
+        }
+        return siteByUrl.values().stream().map(this::getDetailedFromDetailedStatisticItem).collect(Collectors.toList());
     }
     @Override
     public StatisticsResponse getStatisticsResponse() {
-        TotalStatistics total = getTotalStatistics();
         List<DetailedStatisticsItem> list = getDetailedStatisticsItemList();
-        return new StatisticsResponse(true, new StatisticsData(total, list));
+        TotalStatistics total = getTotalStatistics(list);
+        List<CacheStatisticsItem> caches = List.of(lemmaEngine.getCacheStatistics(),
+                searchResultCache.getStatistics());
+        return new StatisticsResponse(true, new StatisticsData(total, list, caches));
     }
 }
@@ -0,0 +1,78 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.analyzer.Tokenizer;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-scan {@link Tokenizer} with the regex splitting LemmaEngine used before it.
+ * Morphology lookups are left out because both paths feed the same words into them.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args=TokenizerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+    private static final String[] WORDS = {"Поисковый", "движок", "индексирует", "страницы", "сайта", "search",
+            "engine", "Index", "ёлка", "2022", "e-mail", "Москва,", "(скобки)", "mixedСлово", "—", "test."};
+
+    @Param({"2000", "20000"})
+    private int wordCount;
+
+    private String text;
+
+    @Setup
+    public void createText() {
+        Random random = new Random(7);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(i % 12 == 11 ? ".\n" : " ");
+        }
+        text = builder.toString();
+    }
+
+    @Benchmark
+    public void singleScan(Blackhole blackhole) {
+        Tokenizer tokenizer = new Tokenizer(text);
+        while (tokenizer.next()) {
+            blackhole.consume(tokenizer.word());
+            blackhole.consume(tokenizer.start());
+            blackhole.consume(tokenizer.end());
+        }
+    }
+
+    @Benchmark
+    public void regexSplit(Blackhole blackhole) {
+        String cleaned = text.toLowerCase(Locale.ROOT).replaceAll("([^а-яa-z\\s])", " ").trim();
+        for (String word : cleaned.toLowerCase(Locale.ROOT).split("\\s+")) {
+            blackhole.consume(checkLanguage(word));
+        }
+    }
+
+    @Benchmark
+    public void regexPositions(Blackhole blackhole) {
+        int index = 0;
+        for (String word : text.toLowerCase(Locale.ROOT).split("\\p{Punct}|\\s")) {
+            blackhole.consume(checkLanguage(word));
+            blackhole.consume(index);
+            index += word.length() + 1;
+        }
+    }
+
+    private static String checkLanguage(String word) {
+        if (word.matches("[а-яА-Я]+")) {
+            return "Russian";
+        } else if (word.matches("[a-zA-Z]+")) {
+            return "English";
+        }
+        return "";
+    }
+}
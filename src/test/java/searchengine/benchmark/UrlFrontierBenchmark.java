@@ -0,0 +1,79 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.config.SitesList;
+import searchengine.pagesearch.BloomVisitedUrlSet;
+import searchengine.pagesearch.ConcurrentVisitedUrlSet;
+import searchengine.pagesearch.FrontierUrl;
+import searchengine.pagesearch.UrlFrontier;
+import searchengine.pagesearch.VisitedUrlSet;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the visited-set implementations behind {@link UrlFrontier} on a crawl-like URL stream in which
+ * about half of the links were already seen.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args=UrlFrontierBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlFrontierBenchmark {
+    private static final int URL_COUNT = 100_000;
+
+    @Param({"concurrent", "bloom"})
+    private String visitedSet;
+
+    private String[] urls;
+    private VisitedUrlSet visitedUrls;
+    private UrlFrontier frontier;
+
+    @Setup(Level.Trial)
+    public void createUrls() {
+        Random random = new Random(11);
+        urls = new String[URL_COUNT];
+        for (int i = 0; i < URL_COUNT; i++) {
+            int page = random.nextInt(URL_COUNT / 2);
+            urls[i] = "https://www.example.com/catalog/" + page % 97 + "/item-" + page + "?sort=name&page=" + page % 5;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createSets() {
+        boolean bloom = visitedSet.equals("bloom");
+        visitedUrls = bloom ? new BloomVisitedUrlSet(URL_COUNT, 0.001) : new ConcurrentVisitedUrlSet();
+        SitesList config = new SitesList();
+        config.setBloomFilter(bloom);
+        config.setBloomExpectedUrls(URL_COUNT);
+        frontier = new UrlFrontier(config);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(URL_COUNT)
+    public void visitedSetAdd(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(visitedUrls.add(url));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(URL_COUNT)
+    public void frontierOfferAndPoll(Blackhole blackhole) {
+        for (int i = 0; i < urls.length; i++) {
+            blackhole.consume(frontier.offer(urls[i], i % 4));
+            if (i % 2 == 1) {
+                FrontierUrl next = frontier.poll();
+                blackhole.consume(next);
+            }
+        }
+        while (!frontier.isEmpty()) {
+            blackhole.consume(frontier.poll());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package searchengine.scoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import searchengine.index.PostingList;
+import searchengine.index.ResultCursor;
+import searchengine.index.ScoredPage;
+import searchengine.index.Segment;
+import searchengine.index.SegmentWriter;
+import searchengine.index.SiteIndex;
+import searchengine.index.TopKCollector;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaxScoreEvaluatorTest {
+    private static final long SITE_ID = 1;
+    private static final int PAGE_COUNT = 3000;
+    private static final String[] LEMMAS = {"редкий", "нечастый", "обычный", "частый", "повсеместный", "везде"};
+    private static final double[] LEMMA_SHARES = {0.01, 0.05, 0.2, 0.5, 0.9, 0.97};
+
+    @TempDir
+    Path directory;
+
+    private final Random random = new Random(42);
+    private final Map<Integer, Map<String, Float>> livePages = new TreeMap<>();
+    private final Map<Integer, Integer> livePageLengths = new HashMap<>();
+    private SiteIndex siteIndex;
+
+    @BeforeEach
+    void createIndex() throws IOException {
+        Map<Integer, Map<String, Float>> base = new TreeMap<>();
+        for (int pageId = 1; pageId <= PAGE_COUNT; pageId++) {
+            base.put(pageId, randomPage());
+        }
+        Map<Integer, Map<String, Float>> reindexed = new TreeMap<>();
+        List<Integer> deleted = new ArrayList<>();
+        for (int pageId = 1; pageId <= PAGE_COUNT; pageId++) {
+            int dice = random.nextInt(20);
+            if (dice == 0) {
+                reindexed.put(pageId, randomPage());
+            } else if (dice == 1) {
+                deleted.add(pageId);
+            }
+        }
+        Segment first = writeSegment("1", base, List.of());
+        Segment second = writeSegment("2", reindexed, deleted);
+        siteIndex = new SiteIndex(SITE_ID, 1, List.of(first, second));
+        livePages.putAll(base);
+        livePages.putAll(reindexed);
+        deleted.forEach(livePages::remove);
+    }
+
+    @Test
+    void prunedTopPagesMatchExhaustiveScoring() {
+        for (int query = 0; query < 200; query++) {
+            List<String> lemmas = randomQuery();
+            QueryPlan plan = plan(lemmas);
+            int capacity = 1 + random.nextInt(30);
+
+            TopKCollector pruned = new TopKCollector(capacity, null);
+            new MaxScoreEvaluator(plan).evaluate(siteIndex, new HashSet<>(), pruned);
+            TopKCollector exhaustive = exhaustive(plan, capacity, null);
+
+            assertEquals(exhaustive.results(), pruned.results(), "query " + lemmas + ", top " + capacity);
+            assertEquals(exhaustive.maxScore(), pruned.maxScore());
+            assertEquals(exhaustive.totalCount(), pruned.totalCount());
+            assertEquals(exhaustive.eligibleCount(), pruned.eligibleCount());
+
+            List<ScoredPage> firstPage = exhaustive.results();
+            if (!firstPage.isEmpty()) {
+                ResultCursor after = ResultCursor.of(firstPage.get(firstPage.size() - 1));
+                TopKCollector nextPruned = new TopKCollector(capacity, after);
+                new MaxScoreEvaluator(plan).evaluate(siteIndex, new HashSet<>(), nextPruned);
+                TopKCollector nextExhaustive = exhaustive(plan, capacity, after);
+                assertEquals(nextExhaustive.results(), nextPruned.results(),
+                        "query " + lemmas + ", top " + capacity + " after " + after.encode());
+                assertEquals(nextExhaustive.eligibleCount(), nextPruned.eligibleCount());
+            }
+        }
+    }
+
+    @Test
+    void commonLemmasAreSkippedOnceThresholdIsHigh() {
+        QueryPlan plan = plan(List.of("обычный", "частый", "повсеместный"));
+        TopKCollector pruned = new TopKCollector(5, null);
+        new MaxScoreEvaluator(plan).evaluate(siteIndex, new HashSet<>(), pruned);
+
+        assertEquals(exhaustive(plan, 5, null).results(), pruned.results());
+        assertTrue(pruned.skippedCount() > 0);
+    }
+
+    private Map<String, Float> randomPage() {
+        Map<String, Float> page = new HashMap<>();
+        for (int i = 0; i < LEMMAS.length; i++) {
+            if (random.nextDouble() < LEMMA_SHARES[i]) {
+                page.put(LEMMAS[i], (float) (1 + random.nextInt(8)));
+            }
+        }
+        return page;
+    }
+
+    private List<String> randomQuery() {
+        List<String> lemmas = new ArrayList<>(Arrays.asList(LEMMAS));
+        Collections.shuffle(lemmas, random);
+        return lemmas.subList(0, 1 + random.nextInt(4));
+    }
+
+    private Segment writeSegment(String name, Map<Integer, Map<String, Float>> pages, List<Integer> deleted)
+            throws IOException {
+        Path file = directory.resolve(name + ".seg");
+        int[] pageIds = new int[pages.size()];
+        int[] pageLengths = new int[pages.size()];
+        int pageCount = 0;
+        for (Map.Entry<Integer, Map<String, Float>> page : pages.entrySet()) {
+            int length = 20 + random.nextInt(400);
+            livePageLengths.put(page.getKey(), length);
+            pageIds[pageCount] = page.getKey();
+            pageLengths[pageCount++] = length;
+        }
+        try (SegmentWriter writer = new SegmentWriter(file)) {
+            String[] sorted = LEMMAS.clone();
+            Arrays.sort(sorted);
+            for (String lemma : sorted) {
+                int[] postingPages = new int[pages.size()];
+                float[] ranks = new float[pages.size()];
+                int size = 0;
+                for (Map.Entry<Integer, Map<String, Float>> page : pages.entrySet()) {
+                    Float rank = page.getValue().get(lemma);
+                    if (rank != null) {
+                        postingPages[size] = page.getKey();
+                        ranks[size++] = rank;
+                    }
+                }
+                if (size > 0) {
+                    writer.addPostingList(lemma, PostingList.encode(Arrays.asList(LEMMAS).indexOf(lemma), postingPages,
+                            ranks, size));
+                }
+            }
+            writer.finish(SITE_ID, pageIds, pageLengths, pageCount, deleted.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return Segment.open(file);
+    }
+
+    private QueryPlan plan(List<String> lemmas) {
+        List<String> ordered = new ArrayList<>(lemmas);
+        ordered.sort(Comparator.comparing((String lemma) -> siteIndex.documentFrequency(lemma))
+                .thenComparing(lemma -> lemma));
+        List<String> required = new ArrayList<>();
+        List<String> optional = new ArrayList<>();
+        for (String lemma : ordered) {
+            if (!required.isEmpty() && siteIndex.documentFrequency(lemma) > 0.9 * siteIndex.pageCount()) {
+                optional.add(lemma);
+            } else {
+                required.add(lemma);
+            }
+        }
+        CorpusStatistics statistics = new CorpusStatistics(siteIndex.pageCount(),
+                (double) siteIndex.totalPageLength() / siteIndex.pageCount());
+        ScoringModel model = new Bm25ScoringModel(1.2f, 0.75f);
+        return new QueryPlan(required, scorers(model, statistics, required), optional,
+                scorers(model, statistics, optional));
+    }
+
+    private TermScorer[] scorers(ScoringModel model, CorpusStatistics statistics, List<String> lemmas) {
+        TermScorer[] scorers = new TermScorer[lemmas.size()];
+        for (int i = 0; i < scorers.length; i++) {
+            scorers[i] = model.termScorer(statistics, siteIndex.documentFrequency(lemmas.get(i)));
+        }
+        return scorers;
+    }
+
+    private TopKCollector exhaustive(QueryPlan plan, int capacity, ResultCursor after) {
+        TopKCollector collector = new TopKCollector(capacity, after);
+        pages:
+        for (Map.Entry<Integer, Map<String, Float>> page : livePages.entrySet()) {
+            int pageLength = livePageLengths.get(page.getKey());
+            float score = 0;
+            for (int i = 0; i < plan.requiredLemmas().size(); i++) {
+                Float rank = page.getValue().get(plan.requiredLemmas().get(i));
+                if (rank == null) {
+                    continue pages;
+                }
+                score += plan.requiredScorers()[i].score(rank, pageLength);
+            }
+            for (int i = 0; i < plan.optionalLemmas().size(); i++) {
+                Float rank = page.getValue().get(plan.optionalLemmas().get(i));
+                if (rank != null) {
+                    score += plan.optionalScorers()[i].score(rank, pageLength);
+                }
+            }
+            collector.offer(new ScoredPage(SITE_ID, page.getKey(), score));
+        }
+        return collector;
+    }
+}